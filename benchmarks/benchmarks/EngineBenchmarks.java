@@ -0,0 +1,281 @@
+package benchmarks;
+
+import danogl.GameObject;
+import danogl.collisions.Broadphase;
+import danogl.collisions.BruteForceBroadphase;
+import danogl.collisions.GameObjectCollection;
+import danogl.collisions.Layer;
+import danogl.collisions.SweepAndPruneBroadphase;
+import danogl.collisions.UniformGridBroadphase;
+import danogl.collisions.AABB.AABBPairCollisionHandler;
+import danogl.components.Transform;
+import danogl.gui.rendering.Camera;
+import danogl.gui.rendering.RectangleRenderable;
+import danogl.util.ModifiableList;
+import danogl.util.Vector2;
+import pepse.utils.NoiseGenerator;
+import pepse.world.Block;
+import pepse.world.Terrain;
+import pepse.world.TerrainColumn;
+import pepse.world.trees.Flora;
+import pepse.world.trees.TreeLayout;
+
+import java.awt.*;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
+
+/**
+ * Benchmarks of the engine's hot paths, and of the world generation of Pepse.
+ * They are the baseline every change to the engine is measured against.
+ * <br>Run with the compiled sources and benchmarks on the class-path:
+ * <pre>java -cp out benchmarks.EngineBenchmarks [name regex] [-w 3] [-i 5] [-t 500]</pre>
+ * @see Harness
+ */
+public class EngineBenchmarks {
+    private static final int SEED = 12345;
+    private static final Vector2 WINDOW_DIMENSIONS = new Vector2(1280, 720);
+    private static final float DELTA_TIME = 1 / 60f;
+    //average area of the world per object in the collision benchmarks, in pixels
+    private static final float AREA_PER_OBJECT = 100 * 100;
+    //the same, in the crowded collision benchmarks, where most objects touch a few others
+    private static final float CROWDED_AREA_PER_OBJECT = 25 * 25;
+
+    /**
+     * Runs the benchmarks.
+     * @param args see {@link Harness#parseArguments(String[])}
+     */
+    public static void main(String[] args) {
+        var harness = new Harness();
+        for(int count : new int[] {100, 1000})
+            harness.add("handleCollisions:bruteForce:n=" + count,
+                    () -> handleCollisions(count, false, BruteForceBroadphase::new));
+        for(int count : new int[] {100, 1000, 10000}) {
+            harness.add("handleCollisions:uniformGrid:n=" + count,
+                    () -> handleCollisions(count, false, EngineBenchmarks::uniformGrid));
+            harness.add("handleCollisions:sweepAndPrune:n=" + count,
+                    () -> handleCollisions(count, false, SweepAndPruneBroadphase::new));
+        }
+        for(int count : new int[] {1000, 10000}) {
+            harness.add("handleCollisions:uniformGrid:strip:n=" + count,
+                    () -> handleCollisions(count, true, EngineBenchmarks::uniformGrid));
+            harness.add("handleCollisions:sweepAndPrune:strip:n=" + count,
+                    () -> handleCollisions(count, true, SweepAndPruneBroadphase::new));
+        }
+        harness.add("handleCollisions:uniformGrid:crowded:n=10000",
+                () -> crowdedCollisions(10000, false));
+        harness.add("handleCollisions:uniformGrid:crowded:parallel:n=10000",
+                () -> crowdedCollisions(10000, true));
+        harness.add("handleCollisions:contactChurn:n=1000", () -> contactChurn(1000));
+        harness.add("calcIntersectionRect", EngineBenchmarks::calcIntersectionRect);
+        for(int count : new int[] {100, 10000})
+            harness.add("modifiableList.flushChanges:n=" + count, () -> flushChanges(count));
+        harness.add("transform.update", EngineBenchmarks::transformUpdate);
+        harness.add("gameObject.render:camera:n=1000", () -> renderThroughCamera(1000));
+        harness.add("noiseGenerator.noise", EngineBenchmarks::noise);
+        harness.add("terrain.columnsInRange:window", EngineBenchmarks::terrainColumnsInRange);
+        harness.add("terrain.createSurface:window", EngineBenchmarks::terrainCreateSurface);
+        harness.add("flora.layoutsInRange:window", EngineBenchmarks::floraLayoutsInRange);
+        harness.add("flora.createTree:window", EngineBenchmarks::floraCreateTrees);
+        harness.parseArguments(args).run();
+    }
+
+    /**
+     * Randomly placed boxes, a quarter of them immovable, colliding in the default layer.
+     * @param areaPerObject the average area of the world per object, in pixels
+     * @param isStrip whether the world is a window high and spread along the x axis,
+     *                as in a side-scroller, rather than square.
+     */
+    static GameObjectCollection collidingObjects(int count, float areaPerObject, boolean isStrip,
+                                                 Broadphase broadphase) {
+        var gameObjects = new GameObjectCollection(null);
+        gameObjects.setBroadphase(broadphase);
+        var random = new Random(SEED);
+        float worldHeight = isStrip ? WINDOW_DIMENSIONS.y() : (float) Math.sqrt(count * areaPerObject);
+        float worldWidth = count * areaPerObject / worldHeight;
+        for(int i = 0 ; i < count ; i++) {
+            var obj = new GameObject(
+                    new Vector2(random.nextFloat() * worldWidth, random.nextFloat() * worldHeight),
+                    new Vector2(10 + random.nextInt(40), 10 + random.nextInt(40)),
+                    null);
+            if(i % 4 == 0) {
+                obj.physics().preventIntersectionsFromDirection(Vector2.ZERO);
+                obj.physics().setMass(danogl.components.GameObjectPhysics.IMMOVABLE_MASS);
+                gameObjects.addGameObject(obj, Layer.STATIC_OBJECTS);
+            }
+            else {
+                gameObjects.addGameObject(obj, Layer.DEFAULT);
+            }
+        }
+        gameObjects.update(0);
+        return gameObjects;
+    }
+
+    private static Broadphase uniformGrid() {
+        return new UniformGridBroadphase(4 * Block.SIZE);
+    }
+
+    private static Harness.Operation handleCollisions(int count, boolean isStrip,
+                                                      Supplier<Broadphase> broadphase) {
+        var gameObjects = collidingObjects(count, AREA_PER_OBJECT, isStrip, broadphase.get());
+        return () -> {
+            gameObjects.handleCollisions();
+            return 1;
+        };
+    }
+
+    //the detection of the pairs runs on the common pool if isParallel
+    private static Harness.Operation crowdedCollisions(int count, boolean isParallel) {
+        var gameObjects = collidingObjects(count, CROWDED_AREA_PER_OBJECT, false, uniformGrid());
+        if(isParallel)
+            gameObjects.setParallelNarrowphase(ForkJoinPool.commonPool(), 0);
+        return () -> {
+            gameObjects.handleCollisions();
+            return 1;
+        };
+    }
+
+    /**
+     * Pairs of boxes sliding into each other and apart again, so that every frame some pairs
+     * start colliding and others stop. Measures the allocations of the narrowphase,
+     * which should be none once the pooled collision data suffices.
+     */
+    private static Harness.Operation contactChurn(int count) {
+        var gameObjects = new GameObjectCollection(null);
+        gameObjects.setBroadphase(new SweepAndPruneBroadphase());
+        var objects = new GameObject[count];
+        for(int i = 0 ; i < count ; i++) {
+            objects[i] = new GameObject(new Vector2(i * 30, 0), new Vector2(20, 20), null);
+            gameObjects.addGameObject(objects[i]);
+        }
+        gameObjects.update(0);
+        int[] frame = {0};
+        return () -> {
+            frame[0]++;
+            //every other box oscillates between touching its left and right neighbors
+            for(int i = 1 ; i < count ; i += 2) {
+                float offset = 15 * (float) Math.sin((frame[0] + i) * 0.2);
+                objects[i].transform().setTopLeftCorner(i * 30 + offset, 0);
+            }
+            gameObjects.handleCollisions();
+            return frame[0];
+        };
+    }
+
+    private static Harness.Operation calcIntersectionRect() {
+        var go1 = new GameObject(new Vector2(0, 0), new Vector2(30, 30), null);
+        var go2 = new GameObject(new Vector2(20, 10), new Vector2(30, 30), null);
+        var rect1 = new Rectangle2D.Float();
+        var rect2 = new Rectangle2D.Float();
+        return () -> {
+            var intersection = AABBPairCollisionHandler.calcIntersectionRect(go1, go2, rect1, rect2);
+            return intersection == null ? 0 : (long) intersection.width;
+        };
+    }
+
+    //a tenth of the list is removed and added back in every flush
+    private static Harness.Operation flushChanges(int count) {
+        var list = new ModifiableList<Integer>(false);
+        List<Integer> items = new ArrayList<>();
+        for(int i = 0 ; i < count ; i++) {
+            items.add(i);
+            list.add(i);
+        }
+        list.flushChanges();
+        int churn = Math.max(1, count / 10);
+        int[] next = {0};
+        return () -> {
+            for(int i = 0 ; i < churn ; i++)
+                list.remove(items.get((next[0] + i) % count));
+            list.flushChanges();
+            for(int i = 0 ; i < churn ; i++)
+                list.add(items.get((next[0] + i) % count));
+            list.flushChanges();
+            next[0] = (next[0] + churn) % count;
+            return list.size();
+        };
+    }
+
+    private static Harness.Operation transformUpdate() {
+        var transform = new Transform(Vector2.ZERO, Vector2.ONES);
+        transform.setVelocity(new Vector2(10, -5));
+        transform.setAcceleration(new Vector2(0, 500));
+        return () -> {
+            transform.update(DELTA_TIME);
+            if(transform.getTopLeftCorner().y() > 1e6f)
+                transform.setTopLeftCorner(Vector2.ZERO);
+            return 1;
+        };
+    }
+
+    //renders every object, in and out of view, through a camera following the first
+    private static Harness.Operation renderThroughCamera(int count) {
+        var random = new Random(SEED);
+        List<GameObject> objects = new ArrayList<>();
+        for(int i = 0 ; i < count ; i++) {
+            objects.add(new GameObject(
+                    new Vector2(random.nextFloat() * 4 * WINDOW_DIMENSIONS.x(),
+                            random.nextFloat() * WINDOW_DIMENSIONS.y()),
+                    new Vector2(Block.SIZE, Block.SIZE),
+                    new RectangleRenderable(new Color(random.nextInt(0xffffff)))));
+        }
+        var camera = new Camera(objects.get(0), Vector2.ZERO, WINDOW_DIMENSIONS, WINDOW_DIMENSIONS);
+        camera.update(DELTA_TIME);
+        var image = new BufferedImage((int) WINDOW_DIMENSIONS.x(), (int) WINDOW_DIMENSIONS.y(),
+                BufferedImage.TYPE_INT_RGB);
+        var g = image.createGraphics();
+        return () -> {
+            for(var obj : objects)
+                obj.render(g, camera);
+            return image.getRGB(0, 0);
+        };
+    }
+
+    private static Harness.Operation noise() {
+        var noiseGenerator = new NoiseGenerator(SEED, (int) (WINDOW_DIMENSIONS.y() * 2 / 3));
+        double[] x = {0};
+        return () -> {
+            x[0] += Block.SIZE;
+            return (long) noiseGenerator.noise(x[0], Block.SIZE * 7.0);
+        };
+    }
+
+    //the world is generated as in InfiniteWorldGenerator: the data of a range is computed
+    //on a worker thread, and the game thread then turns it into objects
+
+    private static Harness.Operation terrainColumnsInRange() {
+        var terrain = new Terrain(WINDOW_DIMENSIONS, SEED);
+        int width = (int) WINDOW_DIMENSIONS.x();
+        return () -> terrain.columnsInRange(0, width).size();
+    }
+
+    //the raster of the surface is drawn on its first render, which is not measured
+    private static Harness.Operation terrainCreateSurface() {
+        var terrain = new Terrain(WINDOW_DIMENSIONS, SEED);
+        List<TerrainColumn> columns = terrain.columnsInRange(0, (int) WINDOW_DIMENSIONS.x());
+        return () -> (long) terrain.createSurface(columns).getDimensions().x();
+    }
+
+    private static Harness.Operation floraLayoutsInRange() {
+        var terrain = new Terrain(WINDOW_DIMENSIONS, SEED);
+        var flora = new Flora(terrain::groundHeightAt, SEED);
+        int width = (int) WINDOW_DIMENSIONS.x();
+        return () -> flora.layoutsInRange(0, width).size();
+    }
+
+    private static Harness.Operation floraCreateTrees() {
+        var terrain = new Terrain(WINDOW_DIMENSIONS, SEED);
+        var flora = new Flora(terrain::groundHeightAt, SEED);
+        List<TreeLayout> layouts = flora.layoutsInRange(0, (int) WINDOW_DIMENSIONS.x());
+        return () -> {
+            long created = 0;
+            for(var layout : layouts)
+                created += flora.createTree(layout).size();
+            return created;
+        };
+    }
+}
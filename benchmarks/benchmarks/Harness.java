@@ -0,0 +1,152 @@
+package benchmarks;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+/**
+ * A minimal benchmark harness, in the spirit of JMH: every benchmark runs for a number of
+ * warmup iterations, whose results are discarded, then for a number of measured iterations,
+ * each a fixed length of time. Reported are the mean time per operation with its standard
+ * deviation across iterations, the fastest iteration, and the bytes allocated per operation.
+ * <br>The values operations return are consumed, so the JIT cannot drop the work.
+ * Every benchmark gets fresh state from its setup, in its own trial.
+ */
+public final class Harness {
+    /**
+     * A single operation under measurement.
+     */
+    @FunctionalInterface
+    public interface Operation {
+        /**
+         * Runs the operation once.
+         * @return any value derived from the work, consumed to keep it from being optimized away.
+         */
+        long run();
+    }
+
+    private static final class Benchmark {
+        private final String name;
+        private final Supplier<Operation> setup;
+
+        private Benchmark(String name, Supplier<Operation> setup) {
+            this.name = name;
+            this.setup = setup;
+        }
+    }
+
+    private static final String USAGE =
+            "arguments: [name regex] [-w warmup iterations] [-i iterations] [-t iteration millis]";
+
+    private final List<Benchmark> benchmarks = new ArrayList<>();
+    private final com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    private Pattern filter = Pattern.compile(".*");
+    private int warmupIterations = 3;
+    private int iterations = 5;
+    private long iterationNanos = 500_000_000L;
+    //written by every operation, so their results are never dead code
+    private long sink;
+
+    /**
+     * Adds a benchmark.
+     * @param name the benchmark's name, which is matched against the name filter.
+     * @param setup creates the benchmark's state, and returns the operation to measure.
+     *              Called once, before the warmup.
+     * @return this harness
+     */
+    public Harness add(String name, Supplier<Operation> setup) {
+        benchmarks.add(new Benchmark(name, setup));
+        return this;
+    }
+
+    /**
+     * Reads the command-line arguments: an optional regular expression matching the names
+     * of the benchmarks to run, and the optional flags -w (warmup iterations), -i (measured
+     * iterations) and -t (milliseconds per iteration).
+     * @return this harness
+     * @throws IllegalArgumentException if the arguments are malformed
+     */
+    public Harness parseArguments(String[] args) {
+        for(int i = 0 ; i < args.length ; i++) {
+            switch(args[i]) {
+                case "-w":
+                    warmupIterations = Integer.parseInt(valueOf(args, ++i));
+                    break;
+                case "-i":
+                    iterations = Integer.parseInt(valueOf(args, ++i));
+                    break;
+                case "-t":
+                    iterationNanos = Long.parseLong(valueOf(args, ++i)) * 1_000_000L;
+                    break;
+                default:
+                    filter = Pattern.compile(args[i]);
+            }
+        }
+        if(iterations < 1)
+            throw new IllegalArgumentException("At least one measured iteration is required");
+        return this;
+    }
+
+    /**
+     * Runs the benchmarks whose names match the filter, in the order they were added,
+     * printing a line for each.
+     */
+    public void run() {
+        System.out.printf("%-48s %14s %12s %14s %12s%n",
+                "benchmark", "ns/op", "+- stddev", "min ns/op", "B/op");
+        for(var benchmark : benchmarks) {
+            if(!filter.matcher(benchmark.name).find())
+                continue;
+            var operation = benchmark.setup.get();
+            for(int i = 0 ; i < warmupIterations ; i++)
+                iteration(operation);
+            double[] nanosPerOp = new double[iterations];
+            double bytesPerOp = 0;
+            for(int i = 0 ; i < iterations ; i++) {
+                double[] result = iteration(operation);
+                nanosPerOp[i] = result[0];
+                bytesPerOp += result[1] / iterations;
+            }
+            double mean = Arrays.stream(nanosPerOp).average().orElse(0);
+            double variance = Arrays.stream(nanosPerOp).map(x -> (x - mean) * (x - mean)).sum()
+                    / Math.max(1, iterations - 1);
+            System.out.printf(Locale.ROOT, "%-48s %14.1f %12.1f %14.1f %12.1f%n",
+                    benchmark.name, mean, Math.sqrt(variance),
+                    Arrays.stream(nanosPerOp).min().orElse(0), bytesPerOp);
+        }
+        if(sink == 42)
+            System.out.println();
+    }
+
+    //returns {nanoseconds per operation, bytes allocated per operation}
+    private double[] iteration(Operation operation) {
+        long threadId = Thread.currentThread().getId();
+        long operations = 0;
+        long batch = 1;
+        long bytesBefore = threads.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        long elapsed;
+        do {
+            for(long i = 0 ; i < batch ; i++)
+                sink += operation.run();
+            operations += batch;
+            elapsed = System.nanoTime() - start;
+            //grow batches so that reading the clock does not dominate fast operations
+            if(elapsed < iterationNanos / 100)
+                batch *= 2;
+        } while(elapsed < iterationNanos);
+        long bytes = threads.getThreadAllocatedBytes(threadId) - bytesBefore;
+        return new double[] {(double) elapsed / operations, (double) bytes / operations};
+    }
+
+    private static String valueOf(String[] args, int index) {
+        if(index >= args.length)
+            throw new IllegalArgumentException(USAGE);
+        return args[index];
+    }
+}
@@ -0,0 +1,225 @@
+package danogl;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Times the phases of every frame of a GameManager, and reports their percentiles over
+ * the last {@link #WINDOW_FRAMES} frames. Timing the phases takes a few clock reads per
+ * frame, so it is enabled by default.
+ * <br>Optionally, the update phase is broken down by the class of every updated object and
+ * component. This reads the clock twice per object and component, so it is disabled by default.
+ * <br>Every GameManager has a profiler, see {@link GameManager#profiler()}.
+ * An on-screen overlay is created by {@link danogl.util.FrameProfilerOverlay}.
+ */
+public class FrameProfiler {
+    /** The number of most recent frames percentiles are computed over */
+    public static final int WINDOW_FRAMES = 240;
+
+    /**
+     * The phases of a frame, in order.
+     */
+    public enum Phase {
+        /** Running due timers, see {@link GameManager#timers()} */
+        TIMERS,
+        /** Advancing batched transitions, see {@link GameManager#animations()} */
+        ANIMATIONS,
+        /** Updating every GameObject, including its components */
+        OBJECTS_UPDATE,
+        /** Updating the camera */
+        CAMERA_UPDATE,
+        /** Applying pending additions and removals of objects to the layers */
+        LAYERS_FLUSH,
+        /** Detecting and resolving collisions */
+        COLLISIONS,
+        /** Rendering */
+        RENDER
+    }
+
+    private static final Phase[] PHASES = Phase.values();
+
+    //while a GameManager with an enabled breakdown updates its objects, GameObjects updated
+    //on its thread report to it; per thread, since several games may run at once
+    static final ThreadLocal<FrameProfiler> updatingObjectsBreakdown = new ThreadLocal<>();
+
+    //per phase, nanoseconds in each of the last WINDOW_FRAMES frames, in a ring
+    private final long[][] phaseNanos = new long[PHASES.length][WINDOW_FRAMES];
+    private final long[] frameNanos = new long[WINDOW_FRAMES];
+    private final long[] currentFrame = new long[PHASES.length];
+    private int ringIndex = 0;
+    private int sampleCount = 0;
+    private boolean isEnabled = true;
+    private boolean isBreakdownEnabled = false;
+    private final Map<Class<?>, long[]> objectUpdateNanos = new HashMap<>();
+    private final Map<Class<?>, long[]> componentUpdateNanos = new HashMap<>();
+    private int breakdownFrames = 0;
+    private final long[] sortBuffer = new long[WINDOW_FRAMES];
+
+    /** Is the profiler timing frames */
+    public boolean isEnabled() { return isEnabled; }
+
+    /**
+     * Starts or stops timing frames. Stopping keeps the samples collected so far.
+     */
+    public void setEnabled(boolean enabled) { isEnabled = enabled; }
+
+    /** Is the update phase broken down by class */
+    public boolean isBreakdownEnabled() { return isBreakdownEnabled; }
+
+    /**
+     * Starts or stops breaking the update phase down by the classes of the updated objects and
+     * components. Starting discards the previous breakdown.
+     * Only takes effect while the profiler is enabled.
+     */
+    public void setBreakdownEnabled(boolean enabled) {
+        if(enabled && !isBreakdownEnabled)
+            resetBreakdown();
+        isBreakdownEnabled = enabled;
+    }
+
+    /**
+     * The time a phase took in the given fraction of the recent frames.
+     * @param phase the phase
+     * @param percentile in [0,100]; for example 50 gives the median, and 99 gives a time
+     *                   only exceeded by one percent of the frames
+     * @return nanoseconds, or 0 if no frame was timed yet
+     */
+    public long percentile(Phase phase, double percentile) {
+        return percentileOf(phaseNanos[phase.ordinal()], percentile);
+    }
+
+    /**
+     * Like {@link #percentile(Phase, double)}, for the whole frame (all phases together).
+     */
+    public long frameTimePercentile(double percentile) {
+        return percentileOf(frameNanos, percentile);
+    }
+
+    /**
+     * The mean time a phase took in the recent frames, in nanoseconds.
+     */
+    public double mean(Phase phase) {
+        if(sampleCount == 0)
+            return 0;
+        long sum = 0;
+        for(int i = 0 ; i < sampleCount ; i++)
+            sum += phaseNanos[phase.ordinal()][i];
+        return (double)sum / sampleCount;
+    }
+
+    /** The number of frames the percentiles are computed over, at most {@link #WINDOW_FRAMES} */
+    public int sampleCount() { return sampleCount; }
+
+    /**
+     * The mean time per frame spent updating objects of every class, since the breakdown was
+     * enabled or reset. The time of an object includes its components.
+     * @return a new map from a GameObject class to nanoseconds per frame
+     */
+    public Map<Class<?>, Double> objectUpdateBreakdown() {
+        return perFrame(objectUpdateNanos);
+    }
+
+    /**
+     * The mean time per frame spent updating components of every class, since the breakdown was
+     * enabled or reset.
+     * @return a new map from a Component class to nanoseconds per frame
+     */
+    public Map<Class<?>, Double> componentUpdateBreakdown() {
+        return perFrame(componentUpdateNanos);
+    }
+
+    /** Discards the breakdown collected so far */
+    public void resetBreakdown() {
+        objectUpdateNanos.clear();
+        componentUpdateNanos.clear();
+        breakdownFrames = 0;
+    }
+
+    /** Discards all samples and the breakdown */
+    public void reset() {
+        for(var ring : phaseNanos)
+            Arrays.fill(ring, 0);
+        Arrays.fill(frameNanos, 0);
+        Arrays.fill(currentFrame, 0);
+        ringIndex = 0;
+        sampleCount = 0;
+        resetBreakdown();
+    }
+
+    /**
+     * package-private, used by GameManager: commits the previous frame's phases and starts a new frame.
+     */
+    void beginFrame() {
+        if(!isEnabled)
+            return;
+        long frame = 0;
+        for(int phase = 0 ; phase < PHASES.length ; phase++)
+            frame += currentFrame[phase];
+        if(frame == 0)
+            return; //nothing was timed, e.g. the very first frame; keep the oldest sample
+        for(int phase = 0 ; phase < PHASES.length ; phase++) {
+            phaseNanos[phase][ringIndex] = currentFrame[phase];
+            currentFrame[phase] = 0;
+        }
+        frameNanos[ringIndex] = frame;
+        ringIndex = (ringIndex + 1) % WINDOW_FRAMES;
+        sampleCount = Math.min(sampleCount + 1, WINDOW_FRAMES);
+        if(isBreakdownEnabled)
+            breakdownFrames++;
+    }
+
+    /**
+     * package-private, used by GameManager: the time a phase starts at.
+     * @return the current time in nanoseconds, or 0 if the profiler is disabled.
+     */
+    long now() {
+        return isEnabled ? System.nanoTime() : 0;
+    }
+
+    /**
+     * package-private, used by GameManager: adds the time since start to the phase.
+     * @return the current time, from which the next phase can be timed
+     */
+    long endPhase(Phase phase, long start) {
+        if(!isEnabled)
+            return 0;
+        long now = System.nanoTime();
+        currentFrame[phase.ordinal()] += now - start;
+        return now;
+    }
+
+    /**
+     * package-private, used by GameManager: is the breakdown collected this frame.
+     */
+    boolean collectsBreakdown() {
+        return isEnabled && isBreakdownEnabled;
+    }
+
+    /** package-private, used by GameManager */
+    void recordObjectUpdate(GameObject obj, long nanos) {
+        objectUpdateNanos.computeIfAbsent(obj.getClass(), c -> new long[1])[0] += nanos;
+    }
+
+    /** package-private, used by GameObject */
+    void recordComponentUpdate(Object component, long nanos) {
+        componentUpdateNanos.computeIfAbsent(component.getClass(), c -> new long[1])[0] += nanos;
+    }
+
+    private long percentileOf(long[] ring, double percentile) {
+        if(sampleCount == 0)
+            return 0;
+        System.arraycopy(ring, 0, sortBuffer, 0, sampleCount);
+        Arrays.sort(sortBuffer, 0, sampleCount);
+        int index = (int)Math.ceil(percentile / 100 * sampleCount) - 1;
+        return sortBuffer[Math.max(0, Math.min(sampleCount - 1, index))];
+    }
+
+    private Map<Class<?>, Double> perFrame(Map<Class<?>, long[]> totals) {
+        Map<Class<?>, Double> result = new HashMap<>();
+        int frames = Math.max(1, breakdownFrames);
+        for(var entry : totals.entrySet())
+            result.put(entry.getKey(), (double)entry.getValue()[0] / frames);
+        return result;
+    }
+}
@@ -1,9 +1,14 @@
 package danogl;
 
 import danogl.collisions.GameObjectCollection;
+import danogl.collisions.LayerListener;
+import danogl.components.AnimationSystem;
 import danogl.components.CoordinateSpace;
+import danogl.components.TimerWheel;
 import danogl.gui.mouse.MouseActionParams;
 import danogl.gui.rendering.Camera;
+import danogl.gui.rendering.FrustumCuller;
+import danogl.gui.rendering.RenderSnapshot;
 import danogl.util.*;
 import danogl.gui.*;
 import java.awt.*;
@@ -23,12 +28,26 @@ import java.awt.*;
  */
 public class GameManager {
     private static final String DEFAULT_WINDOW_TITLE = "DanoGameLab";
+    //the game running on each thread, see running()
+    private static final ThreadLocal<GameManager> runningGame = new ThreadLocal<>();
     private final String windowTitle;
     private final Vector2 windowDimensions;
     private GameObjectCollection gameObjects;
     private GameGUIComponent gameGUIComponent;
     private Camera camera;
+    private FrustumCuller frustumCuller;
+    private final TimerWheel timerWheel = new TimerWheel();
+    private final AnimationSystem animations = new AnimationSystem();
+    //in fixed-timestep mode, the objects whose previous states are recorded before each step
+    private final MovingObjects movingObjects = new MovingObjects();
+    private final FrameProfiler profiler = new FrameProfiler();
     private NotifyOfMouseActions mouseActionNotifier;
+    //fixed-timestep mode, see setFixedTimestep
+    private float fixedTimestep = 0;
+    private int maxStepsPerFrame = 1;
+    private float accumulatedTime = 0;
+    private float renderAlpha = 1;
+    private boolean isRenderingPipelined = false;
 
     /**
      * Creates a new full-screen window with a default title.
@@ -96,10 +115,24 @@ public class GameManager {
             ImageReader imageReader,
             SoundReader soundReader, UserInputListener inputListener,
             WindowController windowController) {
+        runningGame.set(this);
         gameObjects = new GameObjectCollection(windowController.messages());
+        frustumCuller = new FrustumCuller(windowController.getWindowDimensions());
+        gameObjects.addLayerListener(frustumCuller);
+        timerWheel.clear();
+        gameObjects.addLayerListener(timerWheel);
+        animations.clear();
+        gameObjects.addLayerListener(animations);
+        movingObjects.clear();
+        if(fixedTimestep > 0)
+            gameObjects.addLayerListener(movingObjects);
+        profiler.reset();
         mouseActionNotifier = new NotifyOfMouseActions(this, inputListener);
-        gameGUIComponent.addMouseListener(mouseActionNotifier);
-        gameGUIComponent.addMouseWheelListener(mouseActionNotifier);
+        //null when run headless, see danogl.gui.headless.HeadlessRunner
+        if(gameGUIComponent != null) {
+            gameGUIComponent.addMouseListener(mouseActionNotifier);
+            gameGUIComponent.addMouseWheelListener(mouseActionNotifier);
+        }
         setCamera(null);
 
         Tools.shelf().registerToolIfAbsent(gameObjects());
@@ -110,10 +143,31 @@ public class GameManager {
         Tools.shelf().registerToolIfAbsent(windowController.messages());
     }
 
+    /**
+     * Returns the game running on the calling thread: the game that was last initialized or
+     * updated on it (see {@link #initializeGame} and {@link #tick(float)}), unless it ended
+     * since (see {@link #endGame()}). Tasks and transitions created while a game runs join its
+     * {@link #timers()} and {@link #animations()}.
+     * @return the running game, or null if no game runs on the calling thread.
+     */
+    public static GameManager running() {
+        return runningGame.get();
+    }
+
+    /**
+     * Called by the game loop once the game ended, so that the game no longer runs on the
+     * calling thread (see {@link #running()}). Has no effect if another game runs on it.
+     */
+    public void endGame() {
+        if(runningGame.get() == this)
+            runningGame.remove();
+    }
+
     /**
      * Called once per frame. Any logic is put here. Rendering, on the other hand,
      * should only be done within 'render'.
-     * Note that the time that passes between subsequent calls to this method is not constant.
+     * Note that the time that passes between subsequent calls to this method is not constant,
+     * unless in fixed-timestep mode, see {@link #setFixedTimestep(float, int)}.
      * @param deltaTime The time, in seconds, that passed since the last invocation
      *                  of this method (i.e., since the last frame). This is useful
      *                  for either accumulating the total time that passed since some
@@ -122,23 +176,245 @@ public class GameManager {
      *                  by the velocity to get an estimate of the difference in position).
      */
     public void update(float deltaTime) {
+        long phaseStart = profiler.now();
+        timerWheel.advance(deltaTime);
+        phaseStart = profiler.endPhase(FrameProfiler.Phase.TIMERS, phaseStart);
+        animations.advance(deltaTime);
+        phaseStart = profiler.endPhase(FrameProfiler.Phase.ANIMATIONS, phaseStart);
         //update all objects and look for collisions.
-        for(GameObject obj : gameObjects)
-            obj.update(deltaTime);
+        if(profiler.collectsBreakdown())
+            updateObjectsWithBreakdown(deltaTime);
+        else {
+            for(GameObject obj : gameObjects)
+                obj.update(deltaTime);
+        }
+        phaseStart = profiler.endPhase(FrameProfiler.Phase.OBJECTS_UPDATE, phaseStart);
         if(camera != null)
             camera.update(deltaTime);
+        phaseStart = profiler.endPhase(FrameProfiler.Phase.CAMERA_UPDATE, phaseStart);
         gameObjects.update(deltaTime);
+        phaseStart = profiler.endPhase(FrameProfiler.Phase.LAYERS_FLUSH, phaseStart);
         gameObjects.handleCollisions();
+        profiler.endPhase(FrameProfiler.Phase.COLLISIONS, phaseStart);
+    }
+
+    /**
+     * Called automatically once per displayed frame, before render.
+     * By default, calls {@link #update(float)} once with the frame's time.
+     * In fixed-timestep mode (see {@link #setFixedTimestep(float, int)}), the frame's time is
+     * accumulated and update is called once per whole step that accumulated, possibly zero times.
+     * @param deltaTime The time, in seconds, that passed since the last frame.
+     */
+    public void tick(float deltaTime) {
+        runningGame.set(this);
+        profiler.beginFrame();
+        if(fixedTimestep <= 0) {
+            update(deltaTime);
+            return;
+        }
+        accumulatedTime += deltaTime;
+        int steps = 0;
+        while(accumulatedTime >= fixedTimestep && steps < maxStepsPerFrame) {
+            recordPreviousStates();
+            update(fixedTimestep);
+            accumulatedTime -= fixedTimestep;
+            steps++;
+        }
+        //time that could not be caught up on is dropped; the game slows down instead of spiraling
+        if(accumulatedTime >= fixedTimestep)
+            accumulatedTime %= fixedTimestep;
+        renderAlpha = accumulatedTime / fixedTimestep;
+    }
+
+    /**
+     * Switches to or from fixed-timestep mode. In this mode, {@link #update(float)} is always
+     * called with the same deltaTime, which makes physics and game logic independent of the
+     * frame-rate, and therefore reproducible. Objects are rendered between their positions
+     * before and after the last step, in proportion to the time left over in the accumulator,
+     * so motion stays smooth when the frame-rate and the step rate differ.
+     * <br>Only positions are interpolated; an object that was teleported should call
+     * {@link danogl.components.Transform#discardPreviousState()}.
+     * @param stepSeconds the deltaTime of every update, or a non-positive value to call update
+     *                    once per frame with the frame's time (the default)
+     * @param maxStepsPerFrame the most updates per frame. When updates take longer than the steps
+     *                         they simulate, the game slows down rather than falling further behind.
+     * @throws IllegalArgumentException if stepSeconds is positive and maxStepsPerFrame is not
+     */
+    public void setFixedTimestep(float stepSeconds, int maxStepsPerFrame) {
+        if(stepSeconds > 0 && maxStepsPerFrame <= 0)
+            throw new IllegalArgumentException("maxStepsPerFrame must be positive");
+        boolean wasFixed = fixedTimestep > 0;
+        fixedTimestep = Math.max(0, stepSeconds);
+        this.maxStepsPerFrame = Math.max(1, maxStepsPerFrame);
+        accumulatedTime = 0;
+        renderAlpha = 1;
+        if(gameObjects != null) {
+            for(GameObject obj : gameObjects)
+                obj.transform().discardPreviousState();
+            if(!wasFixed && fixedTimestep > 0)
+                gameObjects.addLayerListener(movingObjects);
+            else if(wasFixed && fixedTimestep <= 0)
+                gameObjects.removeLayerListener(movingObjects);
+        }
+        if(camera != null)
+            camera.transform().discardPreviousState();
+    }
+
+    /**
+     * The deltaTime of every update in fixed-timestep mode, or 0 if the mode is off.
+     * @see #setFixedTimestep(float, int)
+     */
+    public float getFixedTimestep() {
+        return fixedTimestep;
+    }
+
+    /**
+     * The most updates per frame in fixed-timestep mode.
+     * @see #setFixedTimestep(float, int)
+     */
+    public int getMaxStepsPerFrame() {
+        return maxStepsPerFrame;
+    }
+
+    /**
+     * In fixed-timestep mode, the fraction of a step left over in the accumulator after the last
+     * frame, which is how far objects are rendered from their previous positions towards their
+     * current ones. Always 1 otherwise.
+     */
+    public float getRenderAlpha() {
+        return fixedTimestep > 0 ? renderAlpha : 1;
     }
 
     /**
      * Called automatically every frame. Only use this method for rendering;
      * any logical calculations should be made in update.
+     * Objects outside the camera's view are not rendered, see {@link #frustumCuller()}.
      * @param g A utility object for drawing shapes, text, and images.
      */
     public void render(Graphics2D g) {
-        for (GameObject obj : gameObjects)
-            obj.render(g, camera);
+        long phaseStart = profiler.now();
+        float alpha = getRenderAlpha();
+        if(camera != null && alpha < 1)
+            camera.transform().beginInterpolatedRendering(alpha);
+        try {
+            if(frustumCuller.isEnabled()) {
+                frustumCuller.render(g, camera, gameObjects, alpha);
+            }
+            else {
+                for (GameObject obj : gameObjects) {
+                    beginInterpolatedRendering(obj, alpha);
+                    try {
+                        obj.render(g, camera);
+                    }
+                    finally {
+                        endInterpolatedRendering(obj, alpha);
+                    }
+                }
+            }
+        }
+        finally {
+            if(camera != null && alpha < 1)
+                camera.transform().endInterpolatedRendering();
+        }
+        profiler.endPhase(FrameProfiler.Phase.RENDER, phaseStart);
+    }
+
+    /**
+     * Called automatically every frame in place of {@link #render(Graphics2D)} when rendering is
+     * pipelined (see {@link #setPipelinedRendering(boolean)}). Appends to the builder a draw command
+     * for every object render would draw, in the same order, culled and interpolated alike.
+     * The snapshot is then drawn on the render thread while the next frame updates.
+     * @param builder the snapshot of the frame being captured.
+     */
+    public void captureRenderSnapshot(RenderSnapshot.Builder builder) {
+        long phaseStart = profiler.now();
+        float alpha = getRenderAlpha();
+        if(camera != null && alpha < 1)
+            camera.transform().beginInterpolatedRendering(alpha);
+        try {
+            if(frustumCuller.isEnabled()) {
+                frustumCuller.capture(builder, camera, gameObjects, alpha);
+            }
+            else {
+                for (GameObject obj : gameObjects) {
+                    beginInterpolatedRendering(obj, alpha);
+                    try {
+                        obj.capture(builder, camera);
+                    }
+                    finally {
+                        endInterpolatedRendering(obj, alpha);
+                    }
+                }
+            }
+        }
+        finally {
+            if(camera != null && alpha < 1)
+                camera.transform().endInterpolatedRendering();
+        }
+        profiler.endPhase(FrameProfiler.Phase.RENDER, phaseStart);
+    }
+
+    /**
+     * Should rendering run on a dedicated thread. If so, every frame the game thread only
+     * captures an immutable {@link RenderSnapshot} of positions, renderables, angles and
+     * opaqueness, and the render thread draws the latest snapshot, so that drawing one frame
+     * overlaps updating the next on a multi-core machine. A frame is skipped if the render
+     * thread is still drawing an earlier one when a later one is captured.
+     * <br>Objects overriding {@link GameObject#render(Graphics2D, Camera)} must override
+     * {@link GameObject#capture} as well, and custom Renderables must tolerate being drawn
+     * while the game thread updates them.
+     * @param pipelined true to render on a dedicated thread, false (the default) to render on
+     *                  the game thread after every update.
+     */
+    public void setPipelinedRendering(boolean pipelined) {
+        isRenderingPipelined = pipelined;
+    }
+
+    /**
+     * Does rendering run on a dedicated thread, see {@link #setPipelinedRendering(boolean)}.
+     */
+    public boolean isRenderingPipelined() {
+        return isRenderingPipelined;
+    }
+
+    /**
+     * Returns the frame profiler, which times the phases of every frame
+     * (updates, collisions, rendering etc.) and reports their percentiles.
+     * @see FrameProfiler
+     * @see danogl.util.FrameProfilerOverlay
+     */
+    public FrameProfiler profiler() {
+        return profiler;
+    }
+
+    /**
+     * Returns the frustum culler, which skips rendering objects outside the camera's view.
+     * It can be disabled, and reports how many objects were drawn and culled in the last frame.
+     * @see FrustumCuller
+     */
+    public FrustumCuller frustumCuller() {
+        return frustumCuller;
+    }
+
+    /**
+     * Returns the game's timer wheel, which runs scheduled callbacks (including every
+     * {@link danogl.components.ScheduledTask}) at the start of each update.
+     * Timers owned by an object are cancelled when the object is removed from the game.
+     * @see TimerWheel
+     */
+    public TimerWheel timers() {
+        return timerWheel;
+    }
+
+    /**
+     * Returns the game's animation system, which advances every
+     * {@link danogl.components.Transition} that uses a built-in interpolator in one batch,
+     * right after the timers run.
+     * Transitions of an object are cancelled when the object is removed from the game.
+     * @see AnimationSystem
+     */
+    public AnimationSystem animations() {
+        return animations;
     }
 
     /**
@@ -194,8 +470,63 @@ public class GameManager {
 
     /**
      * For advanced users who wish to alter the implementation of the game-object collection.
+     * The game's frustum culler, timers and animations are moved to the new collection:
+     * they mirror its objects from now on, and the tasks and transitions of objects that
+     * are not in it are cancelled, as if the objects were removed from the game.
      */
     protected void setGameObjectsCollection(GameObjectCollection gameObjects) {
+        var previous = this.gameObjects;
         this.gameObjects = gameObjects;
+        if(previous == gameObjects)
+            return;
+        moveLayerListener(frustumCuller, previous, gameObjects);
+        moveLayerListener(timerWheel, previous, gameObjects);
+        moveLayerListener(animations, previous, gameObjects);
+        if(fixedTimestep > 0)
+            moveLayerListener(movingObjects, previous, gameObjects);
+    }
+
+    //an object in both collections is reported as removed and then added, so it stays
+    private static void moveLayerListener(LayerListener listener,
+                                          GameObjectCollection from, GameObjectCollection to) {
+        if(listener == null)
+            return;
+        if(from != null)
+            from.removeLayerListener(listener);
+        if(to != null)
+            to.addLayerListener(listener);
+        listener.layersFlushed();
+    }
+
+    //only objects that might have moved since their last recording, see MovingObjects
+    private void recordPreviousStates() {
+        movingObjects.recordPreviousStates();
+        if(camera != null)
+            camera.transform().recordPreviousState();
+    }
+
+    //objects are interpolated as they are drawn; the camera, throughout the rendering
+    private void beginInterpolatedRendering(GameObject obj, float alpha) {
+        if(alpha < 1 && obj != camera)
+            obj.transform().beginInterpolatedRendering(alpha);
+    }
+
+    private void endInterpolatedRendering(GameObject obj, float alpha) {
+        if(alpha < 1 && obj != camera)
+            obj.transform().endInterpolatedRendering();
+    }
+
+    private void updateObjectsWithBreakdown(float deltaTime) {
+        FrameProfiler.updatingObjectsBreakdown.set(profiler);
+        try {
+            for(GameObject obj : gameObjects) {
+                long start = System.nanoTime();
+                obj.update(deltaTime);
+                profiler.recordObjectUpdate(obj, System.nanoTime() - start);
+            }
+        }
+        finally {
+            FrameProfiler.updatingObjectsBreakdown.remove();
+        }
     }
 }
@@ -7,12 +7,14 @@ import danogl.collisions.Collision;
 import danogl.components.Component;
 import danogl.gui.mouse.MouseActionParams;
 import danogl.gui.rendering.Camera;
+import danogl.gui.rendering.RenderSnapshot;
 import danogl.gui.rendering.Renderable;
 import danogl.util.ModifiableList;
 import danogl.util.MutableVector2;
 import danogl.util.Vector2;
 
 import java.awt.*;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Represents an object in the game. For example, an object has dimensions, a certain
@@ -21,6 +23,10 @@ import java.awt.*;
  * @author Dan Nirel
  */
 public class GameObject {
+    //objects are created on the game's thread, but several games may run on threads of their own
+    private static final AtomicInteger nextId = new AtomicInteger();
+
+    private final int id = nextId.getAndIncrement();
     private RendererComponent renderer;
     private Transform transform;
     private GameObjectPhysics physics;
@@ -47,6 +53,7 @@ public class GameObject {
         this.renderer = new RendererComponent(this, renderable);
         this.physics = new GameObjectPhysics();
         this.physics.setCollider(new AABBCollider(0, 0, 1, 1));
+        this.transform.setChangeListener(physics::wakeUp);
     }
 
     /**
@@ -59,12 +66,21 @@ public class GameObject {
      *                  pos += deltaTime*velocity
      */
     public void update(float deltaTime) {
+        physics.updateBodyType(transform);
         transform.update(deltaTime);
         transform.setAccelerationEnabled(true); //might be cancelled when resolving collisions
         renderer.update(deltaTime);
         if(components != null) {
-            for (var component : components)
+            var breakdown = FrameProfiler.updatingObjectsBreakdown.get();
+            for (var component : components) {
+                if(breakdown == null) {
+                    component.update(deltaTime);
+                    continue;
+                }
+                long start = System.nanoTime();
                 component.update(deltaTime);
+                breakdown.recordComponentUpdate(component, System.nanoTime() - start);
+            }
             components.flushChanges();
         }
     }
@@ -73,7 +89,7 @@ public class GameObject {
      * An overload of {@link #render(Graphics2D, Camera)} for the default camera.
      */
     public void render(Graphics2D g) {
-        renderer.render(g, transform.getTopLeftCorner(), transform.getDimensions());
+        renderer.render(g, transform.getRenderedTopLeftCorner(), transform.getDimensions());
     }
 
     /**
@@ -89,13 +105,22 @@ public class GameObject {
             render(g);
             return;
         }
-        if(coordinateSpace != CoordinateSpace.WORLD_COORDINATES)
-            throw new UnsupportedOperationException(coordinateSpace + ": Unsupported coordinate space");
-        //then coords are in world space, translate to screen space
-        float dimFactorX = camera.windowDimensions().x()/camera.getDimensions().x();
-        float dimFactorY = camera.windowDimensions().y()/camera.getDimensions().y();
-        freeCalculationsVector.setXY(getDimensions().x()*dimFactorX,getDimensions().y()*dimFactorY);
-        renderer.render(g, camera.worldToScreenCoords(getTopLeftCorner()), freeCalculationsVector);
+        renderer.render(g, screenTopLeftCorner(camera), screenDimensions(camera));
+    }
+
+    /**
+     * Like {@link #render(Graphics2D, Camera)}, but appends the object's draw command to a
+     * render snapshot instead of drawing, see {@link danogl.GameManager#captureRenderSnapshot}.
+     * Objects that override render should override this method as well.
+     * @param builder the snapshot being captured
+     * @param camera The active camera
+     */
+    public void capture(RenderSnapshot.Builder builder, Camera camera) {
+        if(camera == null || coordinateSpace == CoordinateSpace.CAMERA_COORDINATES) {
+            renderer.capture(builder, transform.getRenderedTopLeftCorner(), transform.getDimensions());
+            return;
+        }
+        renderer.capture(builder, screenTopLeftCorner(camera), screenDimensions(camera));
     }
 
     /**
@@ -307,10 +332,30 @@ public class GameObject {
      */
     public void onMouseAction(MouseActionParams params) { }
 
+    /**
+     * A number identifying the object, distinct from those of all other objects
+     * (until 2^32 objects were created). Does not change during the object's life.
+     */
+    public int id() { return id; }
+
     /**
      * access physics-related attributes of the GameObject
      */
     public GameObjectPhysics physics() {
         return physics;
     }
+
+    //for rendering world coordinates through a camera
+    private Vector2 screenTopLeftCorner(Camera camera) {
+        if(coordinateSpace != CoordinateSpace.WORLD_COORDINATES)
+            throw new UnsupportedOperationException(coordinateSpace + ": Unsupported coordinate space");
+        return camera.worldToScreenCoords(transform.getRenderedTopLeftCorner());
+    }
+
+    private Vector2 screenDimensions(Camera camera) {
+        float dimFactorX = camera.windowDimensions().x()/camera.getDimensions().x();
+        float dimFactorY = camera.windowDimensions().y()/camera.getDimensions().y();
+        freeCalculationsVector.setXY(getDimensions().x()*dimFactorX,getDimensions().y()*dimFactorY);
+        return freeCalculationsVector;
+    }
 }
@@ -0,0 +1,110 @@
+package danogl;
+
+import danogl.collisions.LayerListener;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * package-private, used by GameManager in fixed-timestep mode to record the previous states
+ * of transforms (see {@link danogl.components.Transform#recordPreviousState()}) without
+ * visiting every object before every step.
+ * <br>A transform that did not change during a step still holds, as its previous state,
+ * its position before that step, which is also its position before the next one. Only
+ * transforms that changed need recording, and every change wakes up the object's physics.
+ * Awake objects are therefore recorded before every step, and objects at rest are skipped
+ * until they wake up, as in {@link danogl.collisions.SpatialGrid}.
+ * Added to a GameObjectCollection as a {@link LayerListener}, mirrors its objects.
+ */
+class MovingObjects implements LayerListener {
+    private static class Entry {
+        final GameObject gameObject;
+        //the number of layers the object is in, normally 1
+        int layerCount = 0;
+        //the index in awakeEntries, or -1 if resting
+        int indexInAwake = -1;
+        //added to the object's physics the first time it rests
+        Runnable wakeUpListener;
+
+        Entry(GameObject gameObject) {
+            this.gameObject = gameObject;
+        }
+    }
+
+    private final Map<GameObject, Entry> entries = new IdentityHashMap<>();
+    private final List<Entry> awakeEntries = new ArrayList<>();
+
+    @Override
+    public void objectAdded(GameObject obj, int layerId) {
+        var entry = entries.computeIfAbsent(obj, Entry::new);
+        if(entry.layerCount++ == 0)
+            addAwake(entry); //recorded before the next step, whether or not it is awake
+    }
+
+    @Override
+    public void objectRemoved(GameObject obj, int layerId) {
+        var entry = entries.get(obj);
+        if(entry == null || --entry.layerCount > 0)
+            return;
+        entries.remove(obj);
+        if(entry.indexInAwake >= 0)
+            removeAwake(entry);
+        if(entry.wakeUpListener != null)
+            obj.physics().removeWakeUpListener(entry.wakeUpListener);
+    }
+
+    /**
+     * Records the previous state of every object that might have changed since its
+     * previous state was last recorded.
+     */
+    void recordPreviousStates() {
+        for(int i = 0 ; i < awakeEntries.size() ; ) {
+            var entry = awakeEntries.get(i);
+            entry.gameObject.transform().recordPreviousState();
+            if(!entry.gameObject.physics().isAwake())
+                rest(entry); //swaps another entry into index i
+            else
+                i++;
+        }
+    }
+
+    /** Stops following all objects */
+    void clear() {
+        for(var entry : entries.values()) {
+            if(entry.wakeUpListener != null)
+                entry.gameObject.physics().removeWakeUpListener(entry.wakeUpListener);
+        }
+        entries.clear();
+        awakeEntries.clear();
+    }
+
+    //stops recording the entry, until its object wakes up
+    private void rest(Entry entry) {
+        removeAwake(entry);
+        if(entry.wakeUpListener == null) {
+            entry.wakeUpListener = () -> wakeUp(entry);
+            entry.gameObject.physics().addWakeUpListener(entry.wakeUpListener);
+        }
+    }
+
+    private void wakeUp(Entry entry) {
+        if(entry.indexInAwake < 0)
+            addAwake(entry);
+    }
+
+    private void addAwake(Entry entry) {
+        entry.indexInAwake = awakeEntries.size();
+        awakeEntries.add(entry);
+    }
+
+    private void removeAwake(Entry entry) {
+        var last = awakeEntries.remove(awakeEntries.size() - 1);
+        if(last != entry) {
+            last.indexInAwake = entry.indexInAwake;
+            awakeEntries.set(last.indexInAwake, last);
+        }
+        entry.indexInAwake = -1;
+    }
+}
@@ -201,7 +201,7 @@ public final class Tools {
         if (clientSpecificTools != null) {
             var clientToolRack = clientSpecificTools.get(client);
             if (clientToolRack != null) {
-                var clientTool = clientToolRack.getToolPrivate(tools.getClass());
+                var clientTool = clientToolRack.getToolPrivate(toolClass);
                 if (clientTool != null)
                     return (T) clientTool;
             }
@@ -262,6 +262,6 @@ public final class Tools {
             return soundReader;
         if(toolClass.equals(GameObjectCollection.class))
             return gameObjects;
-        return tools.get(toolClass);
+        return tools == null ? null : tools.get(toolClass);
     }
 }
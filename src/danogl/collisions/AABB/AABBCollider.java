@@ -12,6 +12,7 @@ import java.awt.geom.Rectangle2D;
 public class AABBCollider implements Collider {
     public static final String AABB_COLLIDER_TYPE = "AABB";
     private Rectangle2D.Float rectangle;
+    private int version = 0;
 
     /**
      * Create a new AABB collider. the top-left corner coordinates
@@ -36,8 +37,25 @@ public class AABBCollider implements Collider {
     /**
      * Returns the rectangle represented by this collider,
      * in object-coordinates (not world).
+     * Should not be modified directly, since collision caches would not notice;
+     * use {@link #setRectangle(float, float, float, float)} instead.
      */
     public Rectangle2D.Float getRectangle() {
         return rectangle;
     }
+
+    /**
+     * Sets the rectangle represented by this collider, in object-coordinates (not world).
+     */
+    public void setRectangle(float objectSpaceX, float objectSpaceY,
+                             float objectSpaceWidth, float objectSpaceHeight) {
+        if(rectangle.x == objectSpaceX && rectangle.y == objectSpaceY
+                && rectangle.width == objectSpaceWidth && rectangle.height == objectSpaceHeight)
+            return;
+        rectangle.setRect(objectSpaceX, objectSpaceY, objectSpaceWidth, objectSpaceHeight);
+        version++;
+    }
+
+    @Override
+    public int version() { return version; }
 }
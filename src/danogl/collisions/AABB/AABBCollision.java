@@ -26,14 +26,16 @@ class AABBCollision implements Collision {
         alreadyComputedRelativeVelocityThisFrame = false;
     }
 
+    /** Forgets everything computed for the previous pair, see {@link AABBPairCollisionData#reset} */
+    void reset() {
+        alreadyComputedRelativeVelocityThisFrame = false;
+    }
+
     @Override
     public Vector2 getNormal() {
         if(normal == null)
             normal = new MutableVector2();
-        var x = pairCollisionData.getIntersectionRect();
         pairCollisionData.updateIntersectionRect();
-        x = pairCollisionData.getIntersectionRect();
-        var y = x.getCenterX();
         normal.setX((float)(pairCollisionData.getRectWorld(myIndex).getCenterX()
                 -pairCollisionData.getIntersectionRect().getCenterX()));
         normal.setY((float)(pairCollisionData.getRectWorld(myIndex).getCenterY()
@@ -1,6 +1,7 @@
 package danogl.collisions.AABB;
 
 import danogl.GameObject;
+import danogl.collisions.Collider;
 import danogl.collisions.PairCollisionData;
 import java.awt.geom.Rectangle2D;
 
@@ -11,9 +12,14 @@ import java.awt.geom.Rectangle2D;
  * @author Dan Nirel
  */
 class AABBPairCollisionData extends PairCollisionData {
-    private int lastCalcedHash;
-    private Rectangle2D.Float rect1World, rect2World;
-    private Rectangle2D.Float intersectionRect;
+    //what the rectangles were last computed for; null colliders if they never were
+    private int transformVersion1, transformVersion2;
+    private Collider collider1, collider2;
+    private int colliderVersion1, colliderVersion2;
+    private final Rectangle2D.Float rect1World = new Rectangle2D.Float();
+    private final Rectangle2D.Float rect2World = new Rectangle2D.Float();
+    private final Rectangle2D.Float intersectionRect = new Rectangle2D.Float();
+    private boolean isIntersecting = false;
     private boolean alreadyComputedIntersectionRectThisFrame = false;
 
     public AABBPairCollisionData(GameObject go1,GameObject go2) {
@@ -22,6 +28,20 @@ class AABBPairCollisionData extends PairCollisionData {
         collision2 = new AABBCollision(this, 1);
     }
 
+    /**
+     * Makes the data describe a new pair, as if it was just constructed.
+     * Used for pooling, see {@link AABBPairCollisionHandler#recycle}.
+     */
+    void reset(GameObject go1, GameObject go2) {
+        setGameObject(0, go1);
+        setGameObject(1, go2);
+        collider1 = collider2 = null;
+        isIntersecting = false;
+        alreadyComputedIntersectionRectThisFrame = false;
+        ((AABBCollision)collision1).reset();
+        ((AABBCollision)collision2).reset();
+    }
+
     @Override
     public void onFrameStart() {
         alreadyComputedIntersectionRectThisFrame = false;
@@ -33,14 +53,8 @@ class AABBPairCollisionData extends PairCollisionData {
         if(alreadyComputedIntersectionRectThisFrame || !hasAnythingChanged())
             return;
 
-        if(rect1World == null) {
-            rect1World = new Rectangle2D.Float();
-            rect2World = new Rectangle2D.Float();
-        }
-
-        intersectionRect =
-            AABBPairCollisionHandler.calcIntersectionRect(
-                    go1(), go2(), rect1World, rect2World);
+        isIntersecting = AABBPairCollisionHandler.calcIntersection(
+                go1(), go2(), rect1World, rect2World, intersectionRect);
 
         alreadyComputedIntersectionRectThisFrame = true;
     }
@@ -48,7 +62,7 @@ class AABBPairCollisionData extends PairCollisionData {
     @Override
     public boolean areColliding() {
         updateIntersectionRect();
-        return intersectionRect != null && !intersectionRect.isEmpty();
+        return isIntersecting && !intersectionRect.isEmpty();
     }
 
     public Rectangle2D.Float getRectWorld(int index) {
@@ -56,22 +70,26 @@ class AABBPairCollisionData extends PairCollisionData {
     }
 
     public Rectangle2D.Float getIntersectionRect() {
-        return intersectionRect;
+        return isIntersecting ? intersectionRect : null;
     }
 
     private boolean hasAnythingChanged() {
-        if(rect1World == null)
-            return true; //then wasn't ever inited
-        int newHash =
-                go1().getTopLeftCorner().hashCode()
-                        + 31*go2().getTopLeftCorner().hashCode()
-                        + go1().getDimensions().hashCode()
-                        + go2().getDimensions().hashCode()
-                        + ((AABBCollider)go1().physics().collider()).getRectangle().hashCode()
-                        + ((AABBCollider)go2().physics().collider()).getRectangle().hashCode();
-        if(newHash == lastCalcedHash)
+        var transform1 = go1().transform();
+        var transform2 = go2().transform();
+        var newCollider1 = go1().physics().collider();
+        var newCollider2 = go2().physics().collider();
+        if(collider1 != null
+                && transformVersion1 == transform1.version()
+                && transformVersion2 == transform2.version()
+                && collider1 == newCollider1 && colliderVersion1 == newCollider1.version()
+                && collider2 == newCollider2 && colliderVersion2 == newCollider2.version())
             return false;
-        lastCalcedHash = newHash;
+        transformVersion1 = transform1.version();
+        transformVersion2 = transform2.version();
+        collider1 = newCollider1;
+        collider2 = newCollider2;
+        colliderVersion1 = newCollider1.version();
+        colliderVersion2 = newCollider2.version();
         return true;
     }
 }
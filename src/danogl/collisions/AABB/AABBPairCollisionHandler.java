@@ -4,26 +4,72 @@ import danogl.GameObject;
 import danogl.collisions.PairCollisionData;
 import danogl.collisions.PairCollisionHandler;
 import java.awt.geom.Rectangle2D;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Responsible for computing and caching the intersection data of
  * two GameObjects whose colliders are AABBs (axis-aligned bounding-boxes).
  * Is not responsible for resolving the collision.
+ * <br>Testing a pair allocates nothing, and the data of pairs that stopped colliding
+ * is pooled and reused for new collisions.
  * @author Dan Nirel
  */
 public class AABBPairCollisionHandler implements PairCollisionHandler {
     private Rectangle2D.Float rect1World = new Rectangle2D.Float();
     private Rectangle2D.Float rect2World = new Rectangle2D.Float();
+    private Rectangle2D.Float intersection = new Rectangle2D.Float();
+    private final List<AABBPairCollisionData> pool = new ArrayList<>();
 
     @Override
     public PairCollisionData computeCollisionData(GameObject go1, GameObject go2) {
         if(!supportsPair(go1, go2))
             return null;
 
-        if(calcIntersectionRect(go1, go2, rect1World, rect2World) == null)
+        if(!calcIntersection(go1, go2, rect1World, rect2World, intersection))
             return null;
 
-        return new AABBPairCollisionData(go1, go2);
+        if(pool.isEmpty())
+            return new AABBPairCollisionData(go1, go2);
+        var collisionData = pool.remove(pool.size() - 1);
+        collisionData.reset(go1, go2);
+        return collisionData;
+    }
+
+    @Override
+    public boolean mayCollide(GameObject go1, GameObject go2) {
+        var rect1 = ((AABBCollider)go1.physics().collider()).getRectangle();
+        var rect2 = ((AABBCollider)go2.physics().collider()).getRectangle();
+        var go1Corner = go1.getTopLeftCorner();
+        var go1Dimensions = go1.getDimensions();
+        var go2Corner = go2.getTopLeftCorner();
+        var go2Dimensions = go2.getDimensions();
+        //as calcIntersection, but in locals rather than the handler's rectangles
+        float x1 = go1Corner.x() + rect1.x * go1Dimensions.x();
+        float y1 = go1Corner.y() + rect1.y * go1Dimensions.y();
+        float x2 = go2Corner.x() + rect2.x * go2Dimensions.x();
+        float y2 = go2Corner.y() + rect2.y * go2Dimensions.y();
+        double minX = Math.max((double)x1, x2);
+        double minY = Math.max((double)y1, y2);
+        double maxX = Math.min((double)x1 + rect1.width * go1Dimensions.x(),
+                (double)x2 + rect2.width * go2Dimensions.x());
+        double maxY = Math.min((double)y1 + rect1.height * go1Dimensions.y(),
+                (double)y2 + rect2.height * go2Dimensions.y());
+        return maxX > minX && maxY > minY;
+    }
+
+    @Override
+    public boolean isDetectionThreadSafe() {
+        return true;
+    }
+
+    @Override
+    public void recycle(PairCollisionData collisionData) {
+        if(collisionData instanceof AABBPairCollisionData) {
+            var aabbCollisionData = (AABBPairCollisionData)collisionData;
+            aabbCollisionData.reset(null, null);
+            pool.add(aabbCollisionData);
+        }
     }
 
     @Override
@@ -34,6 +80,9 @@ public class AABBPairCollisionHandler implements PairCollisionHandler {
 
     /**
      * Calculates the intersection rect of two game objects.
+     * Allocates the returned rectangle; see
+     * {@link #calcIntersection(GameObject, GameObject, Rectangle2D.Float, Rectangle2D.Float, Rectangle2D.Float)}
+     * for a version that does not.
      * @param go1 game object 1
      * @param go2 game object 1
      * @param rect1World a container for the world space rect of game
@@ -50,7 +99,27 @@ public class AABBPairCollisionHandler implements PairCollisionHandler {
             rect1World = new Rectangle2D.Float();
             rect2World = new Rectangle2D.Float();
         }
+        var intersection = new Rectangle2D.Float();
+        if(!calcIntersection(go1, go2, rect1World, rect2World, intersection))
+            return null;
+        return intersection;
+    }
 
+    /**
+     * Calculates the intersection rect of two game objects into the given rectangles,
+     * without allocating.
+     * @param go1 game object 1
+     * @param go2 game object 2
+     * @param rect1World a container for the world space rect of game object 1.
+     * @param rect2World a container for the world space rect of game object 2.
+     * @param intersection a container for the intersection rect. Unspecified if the
+     *                     objects do not intersect.
+     * @return true iff the objects intersect, as {@link Rectangle2D#intersects} would decide.
+     */
+    public static boolean calcIntersection(
+            GameObject go1, GameObject go2,
+            Rectangle2D.Float rect1World, Rectangle2D.Float rect2World,
+            Rectangle2D.Float intersection) {
         var rect1 = ((AABBCollider)go1.physics().collider()).getRectangle();
         var rect2 = ((AABBCollider)go2.physics().collider()).getRectangle();
 
@@ -68,8 +137,16 @@ public class AABBPairCollisionHandler implements PairCollisionHandler {
                 rect2.width * go2.getDimensions().x(),
                 rect2.height * go2.getDimensions().y());
 
-        if(!rect1World.intersects(rect2World))
-            return null;
-        return (Rectangle2D.Float) rect1World.createIntersection(rect2World);
+        //in double precision, as Rectangle2D.intersects and createIntersection
+        double minX = Math.max((double)rect1World.x, rect2World.x);
+        double minY = Math.max((double)rect1World.y, rect2World.y);
+        double maxX = Math.min((double)rect1World.x + rect1World.width,
+                (double)rect2World.x + rect2World.width);
+        double maxY = Math.min((double)rect1World.y + rect1World.height,
+                (double)rect2World.y + rect2World.height);
+        if(!(maxX > minX && maxY > minY))
+            return false;
+        intersection.setRect(minX, minY, maxX - minX, maxY - minY);
+        return true;
     }
 }
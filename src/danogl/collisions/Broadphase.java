@@ -0,0 +1,40 @@
+package danogl.collisions;
+
+import danogl.GameObject;
+import danogl.util.ModifiableList;
+
+import java.util.function.BiConsumer;
+
+/**
+ * The broadphase of the collision detection: decides which pairs of GameObjects
+ * from two colliding layers are close enough to be handed to the narrowphase
+ * (the detection of an actual intersection, and the collision callbacks).
+ * A broadphase may skip pairs that cannot possibly intersect, but must never
+ * skip a pair that does.
+ * <br>Implementations are set using {@link GameObjectCollection#setBroadphase(Broadphase)},
+ * and are notified of the objects of every layer as a {@link LayerListener}.
+ * @see BruteForceBroadphase
+ * @see UniformGridBroadphase
+ * @see SweepAndPruneBroadphase
+ */
+public interface Broadphase extends LayerListener {
+    /**
+     * Called once per frame, before any call to
+     * {@link #handleLayers(int, ModifiableList, int, ModifiableList, BiConsumer)}.
+     */
+    default void beginFrame() { }
+
+    /**
+     * Feeds handlePair with every pair of objects from the two layers that might intersect.
+     * If both layers are the same layer, each unordered pair should be fed at most once.
+     * Otherwise, the first argument of handlePair should always be the object from the first layer.
+     * @param layer1Id id of the first layer
+     * @param layer1Objects the objects of the first layer
+     * @param layer2Id id of the second layer, possibly equal to layer1Id
+     * @param layer2Objects the objects of the second layer
+     * @param handlePair the narrowphase
+     */
+    void handleLayers(int layer1Id, ModifiableList<GameObject> layer1Objects,
+                      int layer2Id, ModifiableList<GameObject> layer2Objects,
+                      BiConsumer<GameObject, GameObject> handlePair);
+}
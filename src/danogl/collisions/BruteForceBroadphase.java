@@ -0,0 +1,27 @@
+package danogl.collisions;
+
+import danogl.GameObject;
+import danogl.util.ModifiableList;
+
+import java.util.function.BiConsumer;
+
+/**
+ * The default broadphase: every object of one layer is paired with every object of the other.
+ * Requires no bookkeeping, but its cost is the product of the layers' sizes.
+ */
+public class BruteForceBroadphase implements Broadphase {
+    @Override
+    public void handleLayers(int layer1Id, ModifiableList<GameObject> layerObjs1,
+                             int layer2Id, ModifiableList<GameObject> layerObjs2,
+                             BiConsumer<GameObject, GameObject> handlePair) {
+        for(int ind1 = 0 ; ind1 < layerObjs1.size() ; ind1++) {
+            int ind2 = 0;
+            if(layerObjs1 == layerObjs2)
+                ind2 = ind1 + 1;
+            for(; ind2 < layerObjs2.size() ; ind2++) {
+                if(layerObjs1.get(ind1) != layerObjs2.get(ind2))
+                    handlePair.accept(layerObjs1.get(ind1), layerObjs2.get(ind2));
+            }
+        }
+    }
+}
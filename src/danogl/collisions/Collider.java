@@ -21,4 +21,11 @@ public interface Collider {
      * regarding a point in world-coordinates, see {@link danogl.GameObject#containsPoint(Vector2)}.
      */
     boolean containsPoint(Vector2 point);
+
+    /**
+     * A number that changes whenever the collider's shape changes, so that caches of
+     * collision data can tell whether they are still valid. Colliders that never change
+     * may keep the default.
+     */
+    default int version() { return 0; }
 }
@@ -9,6 +9,8 @@ import java.util.function.UnaryOperator;
 
 /**
  * Stores information regarding a given collision between two GameObjects
+ * <br>Collision objects may be reused for other collisions once their collision ends,
+ * so they should not be kept after it.
  * @author Dan Nirel
  */
 public interface Collision {
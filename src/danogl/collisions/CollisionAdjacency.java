@@ -0,0 +1,83 @@
+package danogl.collisions;
+
+import danogl.GameObject;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * package-private, used by GameObjectCollection: the colliding pairs of every object.
+ * The pairs of an object form a doubly-linked list threaded through the pairs themselves,
+ * so linking and unlinking a pair take constant time, and finding the pairs of an object
+ * takes time in proportion to their number.
+ */
+class CollisionAdjacency {
+    private final Map<GameObject, PairCollisionData> firstPairOf = new IdentityHashMap<>();
+
+    /** The first colliding pair of the object, or null if it collides with nothing */
+    PairCollisionData firstPairOf(GameObject obj) {
+        return firstPairOf.get(obj);
+    }
+
+    /** Adds the pair to the lists of both its objects */
+    void link(PairCollisionData pair) {
+        linkTo(pair, pair.go1());
+        linkTo(pair, pair.go2());
+    }
+
+    /** Removes the pair from the lists of both its objects. The pair must have been linked. */
+    void unlink(PairCollisionData pair) {
+        unlinkFrom(pair, pair.go1());
+        unlinkFrom(pair, pair.go2());
+    }
+
+    void clear() {
+        firstPairOf.clear();
+    }
+
+    private void linkTo(PairCollisionData pair, GameObject obj) {
+        var first = firstPairOf.put(obj, pair);
+        setPrevious(pair, obj, null);
+        setNext(pair, obj, first);
+        if(first != null)
+            setPrevious(first, obj, pair);
+    }
+
+    private void unlinkFrom(PairCollisionData pair, GameObject obj) {
+        var previous = previous(pair, obj);
+        var next = next(pair, obj);
+        if(previous != null)
+            setNext(previous, obj, next);
+        else if(next != null)
+            firstPairOf.put(obj, next);
+        else
+            firstPairOf.remove(obj);
+        if(next != null)
+            setPrevious(next, obj, previous);
+        setPrevious(pair, obj, null);
+        setNext(pair, obj, null);
+    }
+
+    //a pair is linked into two lists, one per object
+    private static PairCollisionData previous(PairCollisionData pair, GameObject obj) {
+        return obj == pair.go1() ? pair.previousOfGo1 : pair.previousOfGo2;
+    }
+
+    private static PairCollisionData next(PairCollisionData pair, GameObject obj) {
+        return obj == pair.go1() ? pair.nextOfGo1 : pair.nextOfGo2;
+    }
+
+    private static void setPrevious(PairCollisionData pair, GameObject obj, PairCollisionData previous) {
+        if(obj == pair.go1())
+            pair.previousOfGo1 = previous;
+        else
+            pair.previousOfGo2 = previous;
+    }
+
+    private static void setNext(PairCollisionData pair, GameObject obj, PairCollisionData next) {
+        if(obj == pair.go1())
+            pair.nextOfGo1 = next;
+        else
+            pair.nextOfGo2 = next;
+    }
+}
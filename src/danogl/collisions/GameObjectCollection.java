@@ -1,11 +1,15 @@
 package danogl.collisions;
 
 import danogl.GameObject;
+import danogl.components.GameObjectPhysics;
 import danogl.gui.MessageHandler;
 import danogl.gui.MsgLevel;
+import danogl.util.LongHashMap;
 
 import java.util.*;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
 
 /**
  * A container for accumulating/removing instances of GameObject and
@@ -16,15 +20,30 @@ import java.util.List;
  */
 public class GameObjectCollection implements Iterable<GameObject> {
     protected CollisionResolver resolver = new CollisionResolver();
-    protected LayerManager layerManager = new LayerManager(this::handlePair);
+    protected LayerManager layerManager = new LayerManager(this::acceptCandidatePair);
     private PairCollisionManager pairCollisionManager = new PairCollisionManager();
-    private Map<GameObjectPair, PairCollisionData> alreadyInCollision
-            = new HashMap<>();
+    //keyed by GameObjectPair.key
+    private LongHashMap<PairCollisionData> alreadyInCollision = new LongHashMap<>();
     private GameObjectPair pair = new GameObjectPair();
     private MessageHandler messages;
+    private int frame = 0;
+    private List<PairCollisionData> separatedPairs = new ArrayList<>();
+    private final Consumer<PairCollisionData> checkIfLeftOutPairSeparated = this::checkIfLeftOutPairSeparated;
+    private CollisionAdjacency adjacency = new CollisionAdjacency();
+    //pairs forgotten since the last handleCollisions since one of their objects was removed
+    private List<PairCollisionData> pairsOfRemovedObjects = new ArrayList<>();
+    //null unless the narrowphase is parallel, see setParallelNarrowphase
+    private ParallelNarrowphase parallelNarrowphase;
 
     public GameObjectCollection(MessageHandler messages) {
         this.messages = messages;
+        //an object removed while collisions were handled may have entered new collisions since
+        layerManager.addLayerListener(new LayerListener() {
+            @Override
+            public void objectRemoved(GameObject obj, int layerId) {
+                forgetCollisionsOf(obj);
+            }
+        });
     }
 
     /**
@@ -64,6 +83,38 @@ public class GameObjectCollection implements Iterable<GameObject> {
         layerManager.addGameObject(obj, layerId);
     }
 
+    /**
+     * Adds all the given objects to a layer in one pass, as if by calling
+     * {@link #addGameObject(GameObject, int)} for each, in order.
+     * The layer is looked up once rather than per object.
+     * @param objects The objects to add.
+     * @param layerId The id of the layer to which the objects should be added.
+     * @param areKnownAbsent true if the caller guarantees that none of the objects was already
+     *                       added to the layer (and not removed since), and that no object
+     *                       appears twice, for example when the objects were just created.
+     *                       The checks for duplicates are then skipped.
+     */
+    public void addGameObjects(Collection<? extends GameObject> objects, int layerId,
+                               boolean areKnownAbsent) {
+        for(var obj : objects) {
+            if(obj == null) {
+                //rare enough to not be worth a fast path
+                for(var objOrNull : objects)
+                    addGameObject(objOrNull, layerId);
+                return;
+            }
+        }
+        layerManager.addGameObjects(objects, layerId, areKnownAbsent);
+    }
+
+    /**
+     * Adds all the given objects to a layer in one pass, skipping objects that were already added.
+     * @see #addGameObjects(Collection, int, boolean)
+     */
+    public void addGameObjects(Collection<? extends GameObject> objects, int layerId) {
+        addGameObjects(objects, layerId, false);
+    }
+
     /**
      * Add the specified obj to the default layer.
      * @see #addGameObject(GameObject, int)
@@ -80,23 +131,34 @@ public class GameObjectCollection implements Iterable<GameObject> {
      * show this object.
      * @param obj The GameObject to remove.
      * @param layerId id of the layer to remove object from
+     * <br>The collisions the object was in end immediately: both objects of every such pair
+     * get their onCollisionExit in the nearest invocation of handleCollisions.
      * @return false if the object does not exist in the collection, or it exists
      * but is already queued for removal, true if removal was successful.
      */
     public boolean removeGameObject(GameObject obj, int layerId) {
         boolean wasAnObjRemoved = layerManager.removeGameObject(obj, layerId);
-        if(wasAnObjRemoved) {
-            List<GameObjectPair> keysToRemove = new ArrayList<>();
-            for(var pair : alreadyInCollision.keySet()) {
-                if(pair.getGameObject(0) == obj
-                        || pair.getGameObject(1) == obj)
-                    keysToRemove.add(pair);
-            }
-            keysToRemove.forEach(alreadyInCollision::remove);
-        }
+        if(wasAnObjRemoved)
+            forgetCollisionsOf(obj);
         return wasAnObjRemoved;
     }
 
+    /**
+     * Removes all the given objects from a layer, as if by calling
+     * {@link #removeGameObject(GameObject, int)} for each.
+     * @param objects The objects to remove.
+     * @param layerId id of the layer to remove the objects from
+     * @return the number of objects that will indeed be removed.
+     */
+    public int removeGameObjects(Collection<? extends GameObject> objects, int layerId) {
+        int removed = 0;
+        for(var obj : objects) {
+            if(removeGameObject(obj, layerId))
+                removed++;
+        }
+        return removed;
+    }
+
     /**
      * Removes an object from the default layer.
      * @see #removeGameObject(GameObject, int)
@@ -115,6 +177,72 @@ public class GameObjectCollection implements Iterable<GameObject> {
             pairCollisionManager.registerSinglePairCollisionHandler(pairCollisionHandler);
     }
 
+    /**
+     * Sets the broadphase of the collision detection, which chooses the pairs of objects
+     * that are checked for collisions. The default is a {@link BruteForceBroadphase}, which
+     * checks all pairs; for large worlds, consider a {@link UniformGridBroadphase}, or
+     * for worlds spread along the x axis, a {@link SweepAndPruneBroadphase}.
+     */
+    public void setBroadphase(Broadphase broadphase) {
+        layerManager.setBroadphase(broadphase);
+    }
+
+    /**
+     * The broadphase currently in use.
+     * @see #setBroadphase(Broadphase)
+     */
+    public Broadphase getBroadphase() {
+        return layerManager.getBroadphase();
+    }
+
+    /**
+     * Makes the narrowphase detect which candidate pairs collide on several threads, in frames
+     * where the broadphase produced at least minPairs of them. The callbacks and the resolution
+     * of the collisions still happen serially, in the order the broadphase produced the pairs.
+     * <br>Since all pairs are detected before any is resolved, a pair does not see the
+     * resolution of another pair in the same frame, but only in the next one. Serially,
+     * a pair is detected right before it is resolved. {@link #handlePair} is only called
+     * when the narrowphase runs serially.
+     * <br>The default is a serial narrowphase.
+     * @param pool the threads to detect on, for example {@link ForkJoinPool#commonPool()}.
+     *             If null, the narrowphase is serial.
+     * @param minPairs the number of candidate pairs from which detection is parallel.
+     *                 Detecting few pairs is faster on a single thread.
+     */
+    public void setParallelNarrowphase(ForkJoinPool pool, int minPairs) {
+        if(minPairs < 0)
+            throw new IllegalArgumentException("The minimal number of pairs cannot be negative");
+        parallelNarrowphase = pool == null ? null
+                : new ParallelNarrowphase(pool, minPairs, pairCollisionManager);
+    }
+
+    /**
+     * Whether the narrowphase may detect collisions on several threads.
+     * @see #setParallelNarrowphase(ForkJoinPool, int)
+     */
+    public boolean isNarrowphaseParallel() {
+        return parallelNarrowphase != null;
+    }
+
+    /**
+     * Adds a listener to be notified whenever objects actually join or leave a layer,
+     * i.e. when pending additions and removals are applied. The listener is immediately
+     * notified of all objects already in the collection.
+     */
+    public void addLayerListener(LayerListener listener) {
+        layerManager.addLayerListener(listener);
+    }
+
+    /**
+     * Stops notifying a listener added by {@link #addLayerListener(LayerListener)}.
+     * The listener is immediately notified of the removal of all objects in the collection,
+     * so that it no longer mirrors them.
+     * @return false if the listener was not added
+     */
+    public boolean removeLayerListener(LayerListener listener) {
+        return layerManager.removeLayerListener(listener);
+    }
+
     /**
      * Updates the internal structures of the collection. Does not update the objects themselves.
      * @param deltaTime Time since last frame
@@ -135,11 +263,16 @@ public class GameObjectCollection implements Iterable<GameObject> {
      * objects via the addGameObject/removeGameObject methods. This occurs after all
      * pair-handling already took place.
      * To alter the broadphase of the collision detection (which pairs should be
-     * checked for collisions), override this method and use the protected method
-     * handlePair.
+     * checked for collisions), pass a {@link Broadphase} to {@link #setBroadphase(Broadphase)}.
+     * <br>Pairs of objects neither of which is awake are not checked, see
+     * {@link danogl.components.GameObjectPhysics.BodyType}.
      */
     public void handleCollisions() {
+        frame++;
         layerManager.handleCollisions();
+        if(parallelNarrowphase != null)
+            handleCandidatePairs();
+        handleCollisionsLeftOutByBroadphase();
     }
 
     /**
@@ -167,6 +300,12 @@ public class GameObjectCollection implements Iterable<GameObject> {
      * @return whether the pair collided or not.
      */
     protected boolean handlePair(GameObject obj1, GameObject obj2) {
+        return handlePair(obj1, obj2, null, -1);
+    }
+
+    //candidate is the pair's index in detection if it was detected there in parallel
+    private boolean handlePair(GameObject obj1, GameObject obj2,
+                               ParallelNarrowphase detection, int candidate) {
         pair.setGameObject(0, obj1);
         pair.setGameObject(1, obj2);
         if(!pair.go1().shouldCollideWith(pair.go2()) ||
@@ -175,35 +314,148 @@ public class GameObjectCollection implements Iterable<GameObject> {
             return false;
         }
         //do they already intersect?
-        var cachedCollisionData = alreadyInCollision.getOrDefault(pair, null);
+        long pairKey = pair.key();
+        var cachedCollisionData = alreadyInCollision.get(pairKey);
+        if(!pair.go1().physics().isAwake() && !pair.go2().physics().isAwake()) {
+            //neither changed lately, so neither did whether they collide
+            if(cachedCollisionData == null)
+                return false;
+            cachedCollisionData.lastHandledFrame = frame;
+            return true;
+        }
+        byte detected = detection == null ? ParallelNarrowphase.NOT_DETECTED
+                : detection.result(candidate);
+        //callbacks of earlier pairs may have ended or started collisions since detection
+        if(detection != null && detection.cachedData(candidate) != cachedCollisionData)
+            detected = ParallelNarrowphase.NOT_DETECTED;
         if(cachedCollisionData != null) {
             //then this is not the first time
-            cachedCollisionData.onFrameStart();
-            if(!cachedCollisionData.areColliding()) {
+            cachedCollisionData.lastHandledFrame = frame;
+            if(detected == ParallelNarrowphase.NOT_DETECTED)
+                cachedCollisionData.onFrameStart();
+            boolean areColliding = detected == ParallelNarrowphase.NOT_DETECTED
+                    ? cachedCollisionData.areColliding()
+                    : detected == ParallelNarrowphase.COLLIDING;
+            if(!areColliding) {
                 //then they did intersect but no longer
+                //forgotten before the callbacks, which may remove the objects
+                alreadyInCollision.remove(pairKey);
+                adjacency.unlink(cachedCollisionData);
                 pair.go1().onCollisionExit(pair.go2());
                 pair.go2().onCollisionExit(pair.go1());
-                alreadyInCollision.remove(pair);
+                pairCollisionManager.recycle(cachedCollisionData);
                 return false;
             }
             //then they still intersect
+            wakeUpIfSleeping(pair.go1());
+            wakeUpIfSleeping(pair.go2());
             pair.go1().onCollisionStay(pair.go2(), cachedCollisionData.getCollision(0));
             pair.go2().onCollisionStay(pair.go1(), cachedCollisionData.getCollision(1));
-            if(resolver != null)
-                resolver.resolve(pair.go1(), cachedCollisionData.getCollision(0),
-                                 pair.go2(), cachedCollisionData.getCollision(1));
+            if(resolver != null) {
+                for(int contact = 0 ; contact < cachedCollisionData.contactCount() ; contact++)
+                    resolver.resolve(pair.go1(), cachedCollisionData.getCollision(0, contact),
+                                     pair.go2(), cachedCollisionData.getCollision(1, contact));
+            }
             return true;
         }
         //so far they weren't intersecting
+        if(detected == ParallelNarrowphase.NOT_COLLIDING)
+            return false;
         var collisionData = pairCollisionManager.getCollisionData(pair.go1(), pair.go2());
         if(null == collisionData)
             return false; //then no collision
         //then colliding for first time
-        alreadyInCollision.put(collisionData, collisionData);
+        collisionData.lastHandledFrame = frame;
+        alreadyInCollision.put(pairKey, collisionData);
+        adjacency.link(collisionData);
+        wakeUpIfSleeping(pair.go1());
+        wakeUpIfSleeping(pair.go2());
         pair.go1().onCollisionEnter(pair.go2(), collisionData.getCollision(0));
         pair.go1().onCollisionStay(pair.go2(), collisionData.getCollision(0));
         pair.go2().onCollisionEnter(pair.go1(), collisionData.getCollision(1));
         pair.go2().onCollisionStay(pair.go1(), collisionData.getCollision(1));
         return true;
     }
+
+    //feeds the broadphase's pairs either to handlePair, or to the parallel narrowphase
+    private void acceptCandidatePair(GameObject obj1, GameObject obj2) {
+        if(parallelNarrowphase != null)
+            parallelNarrowphase.add(obj1, obj2);
+        else
+            handlePair(obj1, obj2);
+    }
+
+    private void handleCandidatePairs() {
+        var candidates = parallelNarrowphase;
+        if(candidates.size() < candidates.minPairs()) {
+            for(int i = 0 ; i < candidates.size() ; i++)
+                handlePair(candidates.first(i), candidates.second(i));
+            candidates.clear();
+            return;
+        }
+        for(int i = 0 ; i < candidates.size() ; i++) {
+            candidates.setCachedData(i, alreadyInCollision.get(
+                    GameObjectPair.keyOf(candidates.first(i), candidates.second(i))));
+        }
+        candidates.detectAll();
+        for(int i = 0 ; i < candidates.size() ; i++)
+            handlePair(candidates.first(i), candidates.second(i), candidates, i);
+        candidates.clear();
+    }
+
+    /**
+     * A broadphase stops feeding a pair once the objects are far apart, so a pair
+     * that was colliding but was not handled this frame might have separated in the meantime.
+     * Such pairs get their onCollisionExit here.
+     */
+    private void handleCollisionsLeftOutByBroadphase() {
+        alreadyInCollision.forEachValue(checkIfLeftOutPairSeparated);
+        //forgotten only after iterating, since the map cannot be modified while iterated
+        for(int i = 0 ; i < separatedPairs.size() ; i++) {
+            var collisionData = separatedPairs.get(i);
+            alreadyInCollision.remove(collisionData.key());
+            adjacency.unlink(collisionData);
+        }
+        //callbacks are invoked only after iterating, since they may remove objects
+        for(int i = 0 ; i < separatedPairs.size() ; i++) {
+            var collisionData = separatedPairs.get(i);
+            collisionData.go1().onCollisionExit(collisionData.go2());
+            collisionData.go2().onCollisionExit(collisionData.go1());
+            pairCollisionManager.recycle(collisionData);
+        }
+        separatedPairs.clear();
+        //by index, since the callbacks may remove more objects
+        for(int i = 0 ; i < pairsOfRemovedObjects.size() ; i++) {
+            var collisionData = pairsOfRemovedObjects.get(i);
+            collisionData.go1().onCollisionExit(collisionData.go2());
+            collisionData.go2().onCollisionExit(collisionData.go1());
+            pairCollisionManager.recycle(collisionData);
+        }
+        pairsOfRemovedObjects.clear();
+    }
+
+    private void checkIfLeftOutPairSeparated(PairCollisionData collisionData) {
+        if(collisionData.lastHandledFrame == frame ||
+                (!collisionData.go1().physics().isAwake() && !collisionData.go2().physics().isAwake()))
+            return;
+        collisionData.onFrameStart();
+        if(!collisionData.areColliding())
+            separatedPairs.add(collisionData);
+    }
+
+    //touching an awake object wakes a resting one up, since it might be pushed
+    private static void wakeUpIfSleeping(GameObject obj) {
+        if(obj.physics().bodyType() == GameObjectPhysics.BodyType.SLEEPING)
+            obj.physics().wakeUp();
+    }
+
+    //touches only the pairs of the object, see CollisionAdjacency
+    private void forgetCollisionsOf(GameObject obj) {
+        PairCollisionData collisionData;
+        while((collisionData = adjacency.firstPairOf(obj)) != null) {
+            adjacency.unlink(collisionData);
+            alreadyInCollision.remove(collisionData.key());
+            pairsOfRemovedObjects.add(collisionData);
+        }
+    }
 }
@@ -2,8 +2,6 @@ package danogl.collisions;
 
 import danogl.GameObject;
 
-import java.util.Objects;
-
 /**
  * package-private class to encapsulate a pair of GameObjects.
  * @author Dan Nirel
@@ -22,7 +20,26 @@ class GameObjectPair {
 
     @Override
     public int hashCode() {
-        return Objects.hash(go1, go2);
+        //order-insensitive, as equals
+        return Long.hashCode(key());
+    }
+
+    /**
+     * The key of the pair: packs the ids of the objects, smaller first,
+     * so that it is the same whichever object is first.
+     */
+    public long key() {
+        return keyOf(go1, go2);
+    }
+
+    /**
+     * The key of the pair of the given objects, in either order.
+     * @see #key()
+     */
+    public static long keyOf(GameObject go1, GameObject go2) {
+        int id1 = go1.id(), id2 = go2.id();
+        int minId = Math.min(id1, id2), maxId = Math.max(id1, id2);
+        return ((long)minId << 32) | (maxId & 0xFFFFFFFFL);
     }
 
     public GameObject getGameObject(int index) {
@@ -0,0 +1,29 @@
+package danogl.collisions;
+
+import danogl.GameObject;
+
+/**
+ * Notified of GameObjects actually joining and leaving the layers of a
+ * {@link GameObjectCollection}, i.e. when pending additions and removals are applied.
+ * This lets other structures, such as a broadphase or a rendering index, mirror the layers
+ * without scanning them every frame.
+ * @see GameObjectCollection#addLayerListener(LayerListener)
+ */
+public interface LayerListener {
+    /**
+     * Called when an object actually joins a layer (i.e. when pending additions are applied).
+     */
+    default void objectAdded(GameObject obj, int layerId) { }
+
+    /**
+     * Called when an object actually leaves a layer (i.e. when pending removals are applied).
+     */
+    default void objectRemoved(GameObject obj, int layerId) { }
+
+    /**
+     * Called after all layers applied their pending changes. An object moved between layers
+     * is reported as removed from one and added to the other before this call, so this is
+     * where an object that was removed and not re-added is known to have left the game.
+     */
+    default void layersFlushed() { }
+}
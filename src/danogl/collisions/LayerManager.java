@@ -2,10 +2,13 @@ package danogl.collisions;
 
 import danogl.GameObject;
 import danogl.util.ConcatIterator;
+import danogl.util.LongHashMap;
 import danogl.util.ModifiableList;
 
 import java.util.*;
 import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
 import java.util.stream.StreamSupport;
 
 /**
@@ -14,12 +17,17 @@ import java.util.stream.StreamSupport;
  */
 class LayerData {
     int layerId;
+    /** Dense, in the order layers were created; indexes the collision matrix */
+    int index;
     int drawOrder;
     ModifiableList<GameObject> objects = new ModifiableList<>(false);
-    Set<Integer> layersThisLayerCollidesWith = new HashSet<>();
+    /** The indices of the layers this layer collides with */
+    BitSet layersThisLayerCollidesWith = new BitSet();
+    Consumer<GameObject> onObjectRemoved, onObjectAdded;
 
-    LayerData(int layerId) {
+    LayerData(int layerId, int index) {
         this.layerId = layerId;
+        this.index = index;
         this.drawOrder = layerId;
     }
 }
@@ -28,20 +36,26 @@ class LayerData {
  * Responsible for the layers mechanism, which separates GameObjects to layers.
  * The layers dictate the order of rendering and allows control of which
  * layers collide with which.
+ * <br>Layers are looked up by id in a hash table, and which layers collide is a bit-matrix
+ * over dense layer indices, so neither takes more than constant time or allocates.
  * @author Dan Nirel
  */
 public class LayerManager {
     private ModifiableList<LayerData> layers = new ModifiableList<>(false);
+    private final LongHashMap<LayerData> layerOfId = new LongHashMap<>();
+    private int layerCount = 0;
     private boolean shouldReSortLayers = false;
     private BiConsumer<GameObject, GameObject> handlePair;
+    private Broadphase broadphase = new BruteForceBroadphase();
+    private List<LayerListener> listeners = new ArrayList<>();
 
     /**
      * package-private constructor
      */
     LayerManager(BiConsumer<GameObject, GameObject> handlePairCallback) {
         this.handlePair = handlePairCallback;
-        layers.add(new LayerData(Layer.STATIC_OBJECTS));
-        layers.add(new LayerData(Layer.DEFAULT));
+        getLayerDataOrCreate(Layer.STATIC_OBJECTS);
+        getLayerDataOrCreate(Layer.DEFAULT);
         shouldLayersCollide(Layer.STATIC_OBJECTS, Layer.DEFAULT, true);
         shouldLayersCollide(Layer.DEFAULT, Layer.DEFAULT, true);
     }
@@ -55,7 +69,7 @@ public class LayerManager {
         var layer2Data = getLayerData(layer2Id);
         if(layer1Data == null || layer2Data == null)
             return false;
-        return layer1Data.layersThisLayerCollidesWith.contains(layer2Id);
+        return layer1Data.layersThisLayerCollidesWith.get(layer2Data.index);
     }
 
     /**
@@ -84,14 +98,66 @@ public class LayerManager {
     public void shouldLayersCollide(int layer1Id, int layer2Id, boolean shouldCollide) {
         var layer1Data = getLayerDataOrCreate(layer1Id);
         var layer2Data = getLayerDataOrCreate(layer2Id);
-        if(shouldCollide) {
-            layer1Data.layersThisLayerCollidesWith.add(layer2Id);
-            layer2Data.layersThisLayerCollidesWith.add(layer1Id);
+        layer1Data.layersThisLayerCollidesWith.set(layer2Data.index, shouldCollide);
+        layer2Data.layersThisLayerCollidesWith.set(layer1Data.index, shouldCollide);
+    }
+
+    /**
+     * The broadphase currently used for choosing which pairs of objects are checked for collisions.
+     */
+    public Broadphase getBroadphase() {
+        return broadphase;
+    }
+
+    /**
+     * Replaces the broadphase used for choosing which pairs of objects are checked for collisions.
+     * The new broadphase is notified of all objects currently in the layers.
+     */
+    public void setBroadphase(Broadphase broadphase) {
+        if(broadphase == null)
+            throw new IllegalArgumentException("Broadphase cannot be null");
+        this.broadphase = broadphase;
+        for(var layerData : layers) {
+            for(var obj : layerData.objects)
+                broadphase.objectAdded(obj, layerData.layerId);
         }
-        else {
-            layer1Data.layersThisLayerCollidesWith.remove(layer2Id);
-            layer2Data.layersThisLayerCollidesWith.remove(layer1Id);
+    }
+
+    /**
+     * Adds a listener to be notified of objects joining and leaving layers.
+     * The listener is immediately notified of all objects currently in the layers.
+     */
+    public void addLayerListener(LayerListener listener) {
+        if(listener == null)
+            throw new IllegalArgumentException("Listener cannot be null");
+        listeners.add(listener);
+        for(var layerData : layers) {
+            for(var obj : layerData.objects)
+                listener.objectAdded(obj, layerData.layerId);
+        }
+    }
+
+    /**
+     * Stops notifying a listener added by {@link #addLayerListener(LayerListener)}.
+     * The listener is immediately notified of the removal of all objects currently in the layers.
+     * @return false if the listener was not added
+     */
+    public boolean removeLayerListener(LayerListener listener) {
+        if(!listeners.remove(listener))
+            return false;
+        for(var layerData : layers) {
+            for(var obj : layerData.objects)
+                listener.objectRemoved(obj, layerData.layerId);
         }
+        return true;
+    }
+
+    /**
+     * Invokes the action with the id of every layer, in draw-order.
+     */
+    public void forEachLayerInDrawOrder(IntConsumer action) {
+        for(int i = 0 ; i < layers.size() ; i++)
+            action.accept(layers.get(i).layerId);
     }
 
     void addGameObject(GameObject obj, int layerId) {
@@ -99,6 +165,11 @@ public class LayerManager {
         layerData.objects.add(obj);
     }
 
+    int addGameObjects(Collection<? extends GameObject> objects, int layerId, boolean areKnownAbsent) {
+        var layerData = getLayerDataOrCreate(layerId);
+        return layerData.objects.addAll(objects, areKnownAbsent);
+    }
+
     boolean isLayerEmpty(int layerId) {
         LayerData layerData = getLayerData(layerId);
         return layerData == null || layerData.objects.size() == 0;
@@ -118,7 +189,9 @@ public class LayerManager {
     void flushChanges() {
         layers.flushChanges();
         for(var layerData : layers)
-            layerData.objects.flushChanges();
+            layerData.objects.flushChanges(layerData.onObjectRemoved, layerData.onObjectAdded);
+        for(int i = 0 ; i < listeners.size() ; i++)
+            listeners.get(i).layersFlushed();
         if(!shouldReSortLayers)
             return;
         //re-sort layers
@@ -146,31 +219,21 @@ public class LayerManager {
     }
 
     void handleCollisions() {
+        broadphase.beginFrame();
         for(int i = 0 ; i < layers.size() ; i++) {
             for(int j = i ; j < layers.size() ; j++) {
-                if(!layers.get(i).layersThisLayerCollidesWith.contains(
-                        layers.get(j).layerId))
+                var layer1 = layers.get(i);
+                var layer2 = layers.get(j);
+                if(!layer1.layersThisLayerCollidesWith.get(layer2.index))
                     continue;
-                handleLayers(layers.get(i).objects, layers.get(j).objects);
-            }
-        }
-    }
-
-    private void handleLayers(
-            ModifiableList<GameObject> layerObjs1, ModifiableList<GameObject> layerObjs2) {
-        for(int ind1 = 0 ; ind1 < layerObjs1.size() ; ind1++) {
-            int ind2 = 0;
-            if(layerObjs1 == layerObjs2)
-                ind2 = ind1 + 1;
-            for(; ind2 < layerObjs2.size() ; ind2++) {
-                if(layerObjs1.get(ind1) != layerObjs2.get(ind2))
-                    handlePair.accept(layerObjs1.get(ind1), layerObjs2.get(ind2));
+                broadphase.handleLayers(layer1.layerId, layer1.objects,
+                        layer2.layerId, layer2.objects, handlePair);
             }
         }
     }
 
     private LayerData getLayerData(int layerId) {
-        return layers.findFirst(data -> data.layerId == layerId);
+        return layerOfId.get(layerId);
     }
 
     private LayerData getLayerDataThrow(int layerId) {
@@ -184,10 +247,27 @@ public class LayerManager {
     private LayerData getLayerDataOrCreate(int layerId) {
         var layerData = getLayerData(layerId);
         if(layerData == null) {
-            layerData = new LayerData(layerId);
+            layerData = createLayerData(layerId);
+            layerOfId.put(layerId, layerData);
             layers.add(layerData);
             shouldReSortLayers = true;
         }
         return layerData;
     }
+
+    private LayerData createLayerData(int layerId) {
+        var layerData = new LayerData(layerId, layerCount++);
+        //the broadphase is looked up on every call since it might be replaced
+        layerData.onObjectRemoved = obj -> {
+            broadphase.objectRemoved(obj, layerId);
+            for(int i = 0 ; i < listeners.size() ; i++)
+                listeners.get(i).objectRemoved(obj, layerId);
+        };
+        layerData.onObjectAdded = obj -> {
+            broadphase.objectAdded(obj, layerId);
+            for(int i = 0 ; i < listeners.size() ; i++)
+                listeners.get(i).objectAdded(obj, layerId);
+        };
+        return layerData;
+    }
 }
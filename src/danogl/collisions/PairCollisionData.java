@@ -10,6 +10,12 @@ import danogl.GameObject;
  */
 public abstract class PairCollisionData extends GameObjectPair {
     protected Collision collision1, collision2;
+    /** package-private: the last frame in which the pair was handled by GameObjectCollection */
+    int lastHandledFrame;
+    /** package-private: links in the lists of colliding pairs of go1 and of go2, see CollisionAdjacency */
+    PairCollisionData previousOfGo1, nextOfGo1, previousOfGo2, nextOfGo2;
+    /** package-private: the handler that computed the data, see PairCollisionManager */
+    PairCollisionHandler handler;
 
     /**
      * Constructor. Who knew.
@@ -30,6 +36,26 @@ public abstract class PairCollisionData extends GameObjectPair {
         throw new IndexOutOfBoundsException();
     }
 
+    /**
+     * The number of contacts between the two objects. Most pairs touch in a single place,
+     * described by {@link #getCollision(int)}. Pairs that may touch in several places at
+     * once (for example, a box standing on a floor and pushing against a wall) override this
+     * and {@link #getCollision(int, int)}, and each contact is resolved separately.
+     * Collision callbacks always receive the first contact.
+     */
+    public int contactCount() { return 1; }
+
+    /**
+     * Returns the collision object of a specific contact, 0 for the first object, 1 for second.
+     * @param index the object's index.
+     * @param contact the contact's index, smaller than {@link #contactCount()}.
+     */
+    public Collision getCollision(int index, int contact) {
+        if(contact == 0)
+            return getCollision(index);
+        throw new IndexOutOfBoundsException();
+    }
+
     /**
      * Notify the object that a new frame has begun. This may help
      * with caching decisions.
@@ -20,4 +20,28 @@ public interface PairCollisionHandler {
      * Is this CollisionHandler responsible for detecting these two GameObjects
      */
     boolean supportsPair(GameObject go1, GameObject go2);
+
+    /**
+     * Called once the collision data returned by {@link #computeCollisionData} is no longer
+     * used, after the objects stopped colliding and were notified of it. Handlers may keep
+     * it, and reuse it for a later collision instead of allocating new data.
+     */
+    default void recycle(PairCollisionData collisionData) { }
+
+    /**
+     * A quick test of whether two objects supported by this handler might be colliding,
+     * used to decide whether to compute their collision data at all.
+     * May return true for objects that do not collide, but never false for objects that do.
+     * Unlike the other methods, it may be called from several threads at once (see
+     * {@link GameObjectCollection#setParallelNarrowphase}), so it should not modify anything.
+     */
+    default boolean mayCollide(GameObject go1, GameObject go2) { return true; }
+
+    /**
+     * Whether {@link PairCollisionData#onFrameStart()} and {@link PairCollisionData#areColliding()}
+     * of the data this handler computes may be called for several pairs on several threads at once,
+     * which holds if they write nothing but the data of their own pair. If not, the pairs of
+     * this handler are always detected on the thread handling the collisions.
+     */
+    default boolean isDetectionThreadSafe() { return false; }
 }
@@ -30,9 +30,34 @@ class PairCollisionManager {
     public PairCollisionData getCollisionData(GameObject go1, GameObject go2) {
         for(var handler : handlers) {
             var collisionData = handler.computeCollisionData(go1, go2);
-            if(collisionData != null)
+            if(collisionData != null) {
+                collisionData.handler = handler;
                 return collisionData;
+            }
         }
         return null;
     }
+
+    /**
+     * Whether any handler supporting the pair finds that it might be colliding.
+     * Thread-safe, see {@link PairCollisionHandler#mayCollide(GameObject, GameObject)}.
+     */
+    public boolean mayCollide(GameObject go1, GameObject go2) {
+        for(int i = 0 ; i < handlers.size() ; i++) {
+            var handler = handlers.get(i);
+            if(handler.supportsPair(go1, go2) && handler.mayCollide(go1, go2))
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Hands collision data that is no longer used back to the handler that computed it.
+     */
+    public void recycle(PairCollisionData collisionData) {
+        var handler = collisionData.handler;
+        collisionData.handler = null;
+        if(handler != null)
+            handler.recycle(collisionData);
+    }
 }
@@ -0,0 +1,127 @@
+package danogl.collisions;
+
+import danogl.GameObject;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * package-private, used by GameObjectCollection: the candidate pairs the broadphase produced
+ * in a frame, and the parallel detection of which of them collide.
+ * Detection only reads the objects, and writes nothing but the collision data of its own pair,
+ * so pairs can be detected on any thread. Pairs already colliding whose handler does not
+ * declare this (see {@link PairCollisionHandler#isDetectionThreadSafe()}) are left undetected,
+ * and detected later on the thread handling the collisions. Everything else, including the
+ * callbacks, happens on that thread, in the order the pairs were produced.
+ */
+class ParallelNarrowphase {
+    /** The result of detecting a candidate pair */
+    static final byte NOT_DETECTED = 0, COLLIDING = 1, NOT_COLLIDING = 2;
+
+    private static final int INITIAL_CAPACITY = 64;
+    //fewer pairs than this are detected by a single task
+    private static final int PAIRS_PER_TASK = 256;
+
+    private final ForkJoinPool pool;
+    private final int minPairs;
+    private final PairCollisionManager pairCollisionManager;
+    private GameObject[] firstObjects = new GameObject[INITIAL_CAPACITY];
+    private GameObject[] secondObjects = new GameObject[INITIAL_CAPACITY];
+    private PairCollisionData[] cachedData = new PairCollisionData[INITIAL_CAPACITY];
+    private byte[] results = new byte[INITIAL_CAPACITY];
+    private int size = 0;
+
+    private class DetectionTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final int from, to;
+
+        DetectionTask(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if(to - from <= PAIRS_PER_TASK) {
+                for(int i = from ; i < to ; i++)
+                    detect(i);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new DetectionTask(from, middle), new DetectionTask(middle, to));
+        }
+    }
+
+    ParallelNarrowphase(ForkJoinPool pool, int minPairs, PairCollisionManager pairCollisionManager) {
+        this.pool = pool;
+        this.minPairs = minPairs;
+        this.pairCollisionManager = pairCollisionManager;
+    }
+
+    /** The number of pairs from which detection runs in parallel */
+    int minPairs() { return minPairs; }
+
+    /** Adds a candidate pair, as fed by the broadphase */
+    void add(GameObject obj1, GameObject obj2) {
+        if(size == firstObjects.length) {
+            firstObjects = Arrays.copyOf(firstObjects, size * 2);
+            secondObjects = Arrays.copyOf(secondObjects, size * 2);
+            cachedData = Arrays.copyOf(cachedData, size * 2);
+            results = Arrays.copyOf(results, size * 2);
+        }
+        firstObjects[size] = obj1;
+        secondObjects[size] = obj2;
+        cachedData[size] = null;
+        results[size] = NOT_DETECTED;
+        size++;
+    }
+
+    int size() { return size; }
+    GameObject first(int candidate) { return firstObjects[candidate]; }
+    GameObject second(int candidate) { return secondObjects[candidate]; }
+
+    /** The collision data the pair had before detection, or null if it was not colliding */
+    PairCollisionData cachedData(int candidate) { return cachedData[candidate]; }
+    void setCachedData(int candidate, PairCollisionData data) { cachedData[candidate] = data; }
+
+    /** One of {@link #NOT_DETECTED}, {@link #COLLIDING} and {@link #NOT_COLLIDING} */
+    byte result(int candidate) { return results[candidate]; }
+
+    /**
+     * Detects all pairs in parallel, and returns once all are detected.
+     * Pairs of resting objects are not detected, as in GameObjectCollection.handlePair,
+     * nor are colliding pairs whose data cannot be updated on any thread.
+     */
+    void detectAll() {
+        pool.invoke(new DetectionTask(0, size));
+    }
+
+    /** Forgets the pairs of the frame */
+    void clear() {
+        Arrays.fill(firstObjects, 0, size, null);
+        Arrays.fill(secondObjects, 0, size, null);
+        Arrays.fill(cachedData, 0, size, null);
+        size = 0;
+    }
+
+    private void detect(int candidate) {
+        var obj1 = firstObjects[candidate];
+        var obj2 = secondObjects[candidate];
+        if(!obj1.physics().isAwake() && !obj2.physics().isAwake())
+            return;
+        var data = cachedData[candidate];
+        //for example, a heightfield's data fills its collider's shared cache of surfaces
+        if(data != null && (data.handler == null || !data.handler.isDetectionThreadSafe()))
+            return;
+        boolean areColliding;
+        if(data != null) {
+            data.onFrameStart();
+            areColliding = data.areColliding();
+        }
+        else {
+            areColliding = pairCollisionManager.mayCollide(obj1, obj2);
+        }
+        results[candidate] = areColliding ? COLLIDING : NOT_COLLIDING;
+    }
+}
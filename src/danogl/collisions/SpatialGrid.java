@@ -0,0 +1,408 @@
+package danogl.collisions;
+
+import danogl.GameObject;
+import danogl.collisions.AABB.AABBCollider;
+import danogl.util.LongHashMap;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A uniform grid (spatial hash) of GameObjects: space is divided into square cells,
+ * and each object is registered in every cell its bounding-box overlaps.
+ * Only non-empty cells are stored, so the grid is unbounded.
+ * Objects spanning too many cells are not hashed at all and are instead kept in
+ * a separate list of "oversized" entries, which every query must consider. When objects
+ * are bounded by their colliders, so are objects whose collider is not an AABB, since
+ * their extent is unknown to the grid.
+ * <br>The grid does not follow its objects on its own; {@link #refresh()} re-hashes
+ * the objects whose cell-range changed since the last refresh.
+ * When objects are bounded by what they render, the rendered region depends on nothing
+ * but the object's transform, which wakes the object up whenever it changes. Objects at rest
+ * (see {@link danogl.components.GameObjectPhysics.BodyType}) are therefore not examined
+ * by refresh until they wake up, and refreshing costs in proportion to the number of objects
+ * in motion. Objects bounded by their colliders are always examined, since a collider can
+ * change without waking its object.
+ */
+public class SpatialGrid {
+    /**
+     * Objects whose bounding-box covers more cells than this are kept in
+     * the oversized list instead of being hashed into cells.
+     */
+    public static final int MAX_CELLS_PER_ENTRY = 64;
+
+    /**
+     * Which region of an object the grid considers to be its bounds.
+     */
+    public enum Bounds {
+        /** The object's collider, if it is an AABB. Otherwise, the object is oversized. */
+        COLLIDER,
+        /**
+         * The region the object's renderable might draw to: its bounding-box, enlarged
+         * to cover the object rotated by any angle.
+         */
+        RENDERED
+    }
+
+    /**
+     * package-private. The grid's record of a single GameObject.
+     */
+    static class Entry {
+        final GameObject gameObject;
+        /** Increases with the order of insertion to the grid */
+        final int sequence;
+        int minCellX, minCellY, maxCellX, maxCellY;
+        float minX, minY, maxX, maxY;
+        boolean isOversized;
+        int indexInEntries;
+        //the index in awakeEntries, unless resting
+        int indexInAwake;
+        boolean isResting;
+        //added to the object's physics the first time it rests
+        Runnable wakeUpListener;
+        int queryStamp;
+        //as of the last hashing
+        int transformVersion = -1;
+        Collider collider;
+        int colliderVersion;
+
+        Entry(GameObject gameObject, int sequence) {
+            this.gameObject = gameObject;
+            this.sequence = sequence;
+        }
+    }
+
+    /**
+     * package-private. A callback for visiting the entries found by a query.
+     */
+    @FunctionalInterface
+    interface EntryVisitor {
+        void visit(Entry entry);
+    }
+
+    private final float cellSize;
+    private final Bounds bounds;
+    private final LongHashMap<List<Entry>> cells = new LongHashMap<>();
+    private final Map<GameObject, Entry> entryOfObject = new IdentityHashMap<>();
+    private final List<Entry> entries = new ArrayList<>();
+    //the entries refresh examines: all of them, but for resting ones when bounds are RENDERED
+    private final List<Entry> awakeEntries = new ArrayList<>();
+    private final List<Entry> oversizedEntries = new ArrayList<>();
+    private int nextSequence = 0;
+    private int queryStamp = 0;
+
+    //state of the query currently in progress, used by queryVisitor
+    private final EntryVisitor queryVisitor = this::visitQueried;
+    private List<GameObject> queryResult;
+    private float queryMinX, queryMinY, queryMaxX, queryMaxY;
+
+    /**
+     * Creates an empty grid of objects bounded by their colliders
+     * @param cellSize the edge of a single cell, in world units. Should be somewhat larger
+     *                 than the typical object.
+     */
+    public SpatialGrid(float cellSize) {
+        this(cellSize, Bounds.COLLIDER);
+    }
+
+    /**
+     * Creates an empty grid
+     * @param cellSize the edge of a single cell, in world units. Should be somewhat larger
+     *                 than the typical object.
+     * @param bounds which region of an object is hashed.
+     */
+    public SpatialGrid(float cellSize, Bounds bounds) {
+        if(cellSize <= 0)
+            throw new IllegalArgumentException("Cell size must be positive");
+        this.cellSize = cellSize;
+        this.bounds = bounds;
+    }
+
+    /** The edge of a single cell, in world units */
+    public float cellSize() { return cellSize; }
+
+    /** The number of objects in the grid */
+    public int size() { return entries.size(); }
+
+    /**
+     * Adds an object to the grid, according to its current bounding-box.
+     * @return false if the object was already in the grid
+     */
+    public boolean insert(GameObject gameObject) {
+        if(entryOfObject.containsKey(gameObject))
+            return false;
+        var entry = new Entry(gameObject, nextSequence++);
+        entryOfObject.put(gameObject, entry);
+        entry.indexInEntries = entries.size();
+        entries.add(entry);
+        entry.indexInAwake = awakeEntries.size();
+        awakeEntries.add(entry);
+        updateVersions(entry);
+        computeCellRange(entry);
+        link(entry);
+        return true;
+    }
+
+    /**
+     * Removes an object from the grid
+     * @return false if the object was not in the grid
+     */
+    public boolean remove(GameObject gameObject) {
+        var entry = entryOfObject.remove(gameObject);
+        if(entry == null)
+            return false;
+        unlink(entry);
+        //swap-remove; the order of entries is meaningless
+        var last = entries.remove(entries.size() - 1);
+        if(last != entry) {
+            last.indexInEntries = entry.indexInEntries;
+            entries.set(last.indexInEntries, last);
+        }
+        if(!entry.isResting)
+            removeAwake(entry);
+        if(entry.wakeUpListener != null)
+            gameObject.physics().removeWakeUpListener(entry.wakeUpListener);
+        return true;
+    }
+
+    /**
+     * Re-hashes every object whose bounding-box moved to a different range of cells
+     * since it was last hashed. Resting objects are skipped when their bounds cannot have
+     * changed, see the class documentation.
+     */
+    public void refresh() {
+        for(int i = 0 ; i < awakeEntries.size() ; ) {
+            var entry = awakeEntries.get(i);
+            refresh(entry);
+            if(bounds == Bounds.RENDERED && !entry.gameObject.physics().isAwake())
+                rest(entry); //swaps another entry into index i
+            else
+                i++;
+        }
+    }
+
+    /**
+     * package-private. Re-hashes a single entry if its range of cells changed.
+     */
+    void refresh(Entry entry) {
+        int oldMinX = entry.minCellX, oldMinY = entry.minCellY;
+        int oldMaxX = entry.maxCellX, oldMaxY = entry.maxCellY;
+        boolean wasOversized = entry.isOversized;
+        if(!updateVersions(entry))
+            return;
+        computeCellRange(entry);
+        if(oldMinX == entry.minCellX && oldMinY == entry.minCellY
+                && oldMaxX == entry.maxCellX && oldMaxY == entry.maxCellY
+                && wasOversized == entry.isOversized)
+            return;
+        int newMinX = entry.minCellX, newMinY = entry.minCellY;
+        int newMaxX = entry.maxCellX, newMaxY = entry.maxCellY;
+        boolean isOversized = entry.isOversized;
+        //unlink according to the old range, then link according to the new
+        entry.minCellX = oldMinX; entry.minCellY = oldMinY;
+        entry.maxCellX = oldMaxX; entry.maxCellY = oldMaxY;
+        entry.isOversized = wasOversized;
+        unlink(entry);
+        entry.minCellX = newMinX; entry.minCellY = newMinY;
+        entry.maxCellX = newMaxX; entry.maxCellY = newMaxY;
+        entry.isOversized = isOversized;
+        link(entry);
+    }
+
+    /**
+     * Adds to result every object whose bounds, as of the last refresh, intersect the given
+     * rectangle, including oversized objects. The objects are added in no particular order.
+     * @param result a list the objects are appended to.
+     */
+    public void query(float minX, float minY, float maxX, float maxY, List<GameObject> result) {
+        queryResult = result;
+        queryMinX = minX; queryMinY = minY; queryMaxX = maxX; queryMaxY = maxY;
+        forEachInCells(cellCoord(minX), cellCoord(minY), cellCoord(maxX), cellCoord(maxY),
+                queryVisitor);
+        for(int i = 0 ; i < oversizedEntries.size() ; i++)
+            queryVisitor.visit(oversizedEntries.get(i));
+        queryResult = null;
+    }
+
+    /**
+     * The order in which an object was inserted into the grid: objects inserted later
+     * have larger sequence numbers.
+     * @return the object's sequence number, or -1 if it is not in the grid.
+     */
+    public int sequenceOf(GameObject gameObject) {
+        var entry = entryOfObject.get(gameObject);
+        return entry == null ? -1 : entry.sequence;
+    }
+
+    /**
+     * package-private. All the entries of the grid, in no particular order.
+     * The list must not be modified by the caller.
+     */
+    List<Entry> entries() { return entries; }
+
+    /**
+     * package-private. The entries that are too large to be hashed into cells.
+     * The list must not be modified by the caller.
+     */
+    List<Entry> oversizedEntries() { return oversizedEntries; }
+
+    /**
+     * package-private. Visits every hashed (non-oversized) entry sharing at least one
+     * cell with the given range of cells. Each entry is visited at most once per call.
+     */
+    void forEachInCells(int minCellX, int minCellY, int maxCellX, int maxCellY,
+                        EntryVisitor visitor) {
+        int stamp = ++queryStamp;
+        for(int cellX = minCellX ; cellX <= maxCellX ; cellX++) {
+            for(int cellY = minCellY ; cellY <= maxCellY ; cellY++) {
+                var cell = cells.get(cellKey(cellX, cellY));
+                if(cell == null)
+                    continue;
+                for(int i = 0 ; i < cell.size() ; i++) {
+                    var entry = cell.get(i);
+                    if(entry.queryStamp == stamp)
+                        continue;
+                    entry.queryStamp = stamp;
+                    visitor.visit(entry);
+                }
+            }
+        }
+    }
+
+    /**
+     * package-private. Visits every hashed (non-oversized) entry sharing at least one
+     * cell with the given entry (which may belong to another grid with the same cell size).
+     */
+    void forEachNear(Entry entry, EntryVisitor visitor) {
+        forEachInCells(entry.minCellX, entry.minCellY, entry.maxCellX, entry.maxCellY, visitor);
+    }
+
+    private void visitQueried(Entry entry) {
+        if(entry.maxX >= queryMinX && entry.minX <= queryMaxX
+                && entry.maxY >= queryMinY && entry.minY <= queryMaxY)
+            queryResult.add(entry.gameObject);
+    }
+
+    //stops examining the entry on refresh, until its object wakes up
+    private void rest(Entry entry) {
+        removeAwake(entry);
+        entry.isResting = true;
+        if(entry.wakeUpListener == null) {
+            entry.wakeUpListener = () -> wakeUp(entry);
+            entry.gameObject.physics().addWakeUpListener(entry.wakeUpListener);
+        }
+    }
+
+    private void wakeUp(Entry entry) {
+        if(!entry.isResting)
+            return;
+        entry.isResting = false;
+        entry.indexInAwake = awakeEntries.size();
+        awakeEntries.add(entry);
+    }
+
+    private void removeAwake(Entry entry) {
+        var last = awakeEntries.remove(awakeEntries.size() - 1);
+        if(last != entry) {
+            last.indexInAwake = entry.indexInAwake;
+            awakeEntries.set(last.indexInAwake, last);
+        }
+    }
+
+    //records the versions of the object's transform and collider, and returns whether they changed
+    private static boolean updateVersions(Entry entry) {
+        var collider = entry.gameObject.physics().collider();
+        int transformVersion = entry.gameObject.transform().version();
+        int colliderVersion = collider == null ? 0 : collider.version();
+        if(entry.collider == collider && entry.transformVersion == transformVersion
+                && entry.colliderVersion == colliderVersion)
+            return false;
+        entry.collider = collider;
+        entry.transformVersion = transformVersion;
+        entry.colliderVersion = colliderVersion;
+        return true;
+    }
+
+    private void computeCellRange(Entry entry) {
+        var gameObject = entry.gameObject;
+        var topLeft = gameObject.getTopLeftCorner();
+        var dimensions = gameObject.getDimensions();
+        float minX = topLeft.x(), minY = topLeft.y();
+        float width = dimensions.x(), height = dimensions.y();
+        boolean isAABB = gameObject.physics().collider() instanceof AABBCollider;
+        if(bounds == Bounds.RENDERED) {
+            //the circle circumscribing the object contains it at any angle
+            float radius = (float)Math.sqrt(width * width + height * height) / 2;
+            minX += width / 2 - radius;
+            minY += height / 2 - radius;
+            width = height = 2 * radius;
+        }
+        else if(isAABB) {
+            var rect = ((AABBCollider)gameObject.physics().collider()).getRectangle();
+            minX += rect.x * dimensions.x();
+            minY += rect.y * dimensions.y();
+            width = rect.width * dimensions.x();
+            height = rect.height * dimensions.y();
+        }
+        entry.minX = minX;
+        entry.minY = minY;
+        entry.maxX = minX + width;
+        entry.maxY = minY + height;
+        entry.minCellX = cellCoord(minX);
+        entry.minCellY = cellCoord(minY);
+        entry.maxCellX = cellCoord(minX + width);
+        entry.maxCellY = cellCoord(minY + height);
+        long cellsCovered = (long)(entry.maxCellX - entry.minCellX + 1)
+                * (entry.maxCellY - entry.minCellY + 1);
+        entry.isOversized = (bounds == Bounds.COLLIDER && !isAABB)
+                || cellsCovered > MAX_CELLS_PER_ENTRY;
+    }
+
+    private void link(Entry entry) {
+        if(entry.isOversized) {
+            oversizedEntries.add(entry);
+            return;
+        }
+        for(int cellX = entry.minCellX ; cellX <= entry.maxCellX ; cellX++) {
+            for(int cellY = entry.minCellY ; cellY <= entry.maxCellY ; cellY++) {
+                long key = cellKey(cellX, cellY);
+                var cell = cells.get(key);
+                if(cell == null) {
+                    cell = new ArrayList<>(4);
+                    cells.put(key, cell);
+                }
+                cell.add(entry);
+            }
+        }
+    }
+
+    private void unlink(Entry entry) {
+        if(entry.isOversized) {
+            oversizedEntries.remove(entry);
+            return;
+        }
+        for(int cellX = entry.minCellX ; cellX <= entry.maxCellX ; cellX++) {
+            for(int cellY = entry.minCellY ; cellY <= entry.maxCellY ; cellY++) {
+                long key = cellKey(cellX, cellY);
+                var cell = cells.get(key);
+                if(cell == null)
+                    continue;
+                cell.remove(entry);
+                if(cell.isEmpty())
+                    cells.remove(key);
+            }
+        }
+    }
+
+    private int cellCoord(float worldCoord) {
+        float cell = (float)Math.floor(worldCoord / cellSize);
+        //clamp absurd coordinates rather than overflow
+        return (int)Math.max(Integer.MIN_VALUE / 2, Math.min(Integer.MAX_VALUE / 2, cell));
+    }
+
+    private static long cellKey(int cellX, int cellY) {
+        return ((long)cellX << 32) | (cellY & 0xFFFFFFFFL);
+    }
+}
@@ -0,0 +1,256 @@
+package danogl.collisions;
+
+import danogl.GameObject;
+import danogl.collisions.AABB.AABBCollider;
+import danogl.util.LongHashMap;
+import danogl.util.ModifiableList;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * A broadphase that keeps the objects of every layer sorted by the left edge of their bounds,
+ * and sweeps the sorted order: an object is only paired with the objects that start before
+ * it ends, and of those only with the ones overlapping it vertically as well.
+ * Suits worlds spread along the x axis, such as side-scrollers.
+ * <br>The order is kept from frame to frame, and once per frame is repaired by an insertion
+ * sort, which takes linear time when objects move little relative to each other.
+ * Objects added since the last frame are sorted separately and merged in.
+ * <br>Objects whose collider is not an AABB have unknown bounds, and are paired with
+ * every object of the other layer, as in {@link BruteForceBroadphase}.
+ */
+public class SweepAndPruneBroadphase implements Broadphase {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private static class Entry {
+        final GameObject gameObject;
+        /** Increases with the order of insertion to the layer */
+        final int sequence;
+        float minX, minY, maxX, maxY;
+        boolean isRemoved;
+        //as of the last computation of the bounds
+        int transformVersion = -1;
+        Collider collider;
+        int colliderVersion;
+
+        Entry(GameObject gameObject, int sequence) {
+            this.gameObject = gameObject;
+            this.sequence = sequence;
+        }
+    }
+
+    //the entries of a single layer, sorted by minX as of the last refresh
+    private static class LayerSweep {
+        Entry[] sorted = new Entry[INITIAL_CAPACITY];
+        int size = 0;
+        Entry[] added = new Entry[INITIAL_CAPACITY];
+        int addedCount = 0;
+        int removedCount = 0;
+        final Map<GameObject, Entry> entryOfObject = new IdentityHashMap<>();
+        int nextSequence = 0;
+        int lastRefreshedFrame = -1;
+    }
+
+    private final LongHashMap<LayerSweep> sweepOfLayer = new LongHashMap<>();
+    private int frame = 0;
+
+    @Override
+    public void objectAdded(GameObject obj, int layerId) {
+        var sweep = sweepOfLayer.get(layerId);
+        if(sweep == null) {
+            sweep = new LayerSweep();
+            sweepOfLayer.put(layerId, sweep);
+        }
+        if(sweep.entryOfObject.containsKey(obj))
+            return;
+        var entry = new Entry(obj, sweep.nextSequence++);
+        sweep.entryOfObject.put(obj, entry);
+        if(sweep.addedCount == sweep.added.length)
+            sweep.added = Arrays.copyOf(sweep.added, sweep.addedCount * 2);
+        sweep.added[sweep.addedCount++] = entry;
+    }
+
+    @Override
+    public void objectRemoved(GameObject obj, int layerId) {
+        var sweep = sweepOfLayer.get(layerId);
+        if(sweep == null)
+            return;
+        var entry = sweep.entryOfObject.remove(obj);
+        if(entry == null)
+            return;
+        //the entry is dropped from its array on the next refresh
+        entry.isRemoved = true;
+        sweep.removedCount++;
+    }
+
+    @Override
+    public void beginFrame() {
+        frame++;
+    }
+
+    @Override
+    public void handleLayers(int layer1Id, ModifiableList<GameObject> layer1Objects,
+                             int layer2Id, ModifiableList<GameObject> layer2Objects,
+                             BiConsumer<GameObject, GameObject> handlePair) {
+        var sweep1 = refreshedSweep(layer1Id);
+        var sweep2 = refreshedSweep(layer2Id);
+        if(sweep1 == null || sweep2 == null)
+            return;
+        if(layer1Id == layer2Id)
+            sweepSameLayer(sweep1, handlePair);
+        else
+            sweepTwoLayers(sweep1, sweep2, handlePair);
+    }
+
+    private LayerSweep refreshedSweep(int layerId) {
+        var sweep = sweepOfLayer.get(layerId);
+        if(sweep == null)
+            return null;
+        //layers that never collide are left alone
+        if(sweep.lastRefreshedFrame != frame) {
+            refresh(sweep);
+            sweep.lastRefreshedFrame = frame;
+        }
+        return sweep;
+    }
+
+    private static void refresh(LayerSweep sweep) {
+        if(sweep.removedCount > 0)
+            dropRemoved(sweep);
+        var sorted = sweep.sorted;
+        for(int i = 0 ; i < sweep.size ; i++)
+            computeBounds(sorted[i]);
+        //insertion sort: nearly linear, since the order barely changes between frames
+        for(int i = 1 ; i < sweep.size ; i++) {
+            var entry = sorted[i];
+            int j = i - 1;
+            while(j >= 0 && sorted[j].minX > entry.minX) {
+                sorted[j + 1] = sorted[j];
+                j--;
+            }
+            sorted[j + 1] = entry;
+        }
+        if(sweep.addedCount > 0)
+            mergeAdded(sweep);
+    }
+
+    private static void dropRemoved(LayerSweep sweep) {
+        int kept = 0;
+        for(int i = 0 ; i < sweep.size ; i++) {
+            if(!sweep.sorted[i].isRemoved)
+                sweep.sorted[kept++] = sweep.sorted[i];
+        }
+        Arrays.fill(sweep.sorted, kept, sweep.size, null);
+        sweep.size = kept;
+        //objects both added and removed since the last refresh were never in sorted
+        int keptAdded = 0;
+        for(int i = 0 ; i < sweep.addedCount ; i++) {
+            if(!sweep.added[i].isRemoved)
+                sweep.added[keptAdded++] = sweep.added[i];
+        }
+        Arrays.fill(sweep.added, keptAdded, sweep.addedCount, null);
+        sweep.addedCount = keptAdded;
+        sweep.removedCount = 0;
+    }
+
+    //a whole chunk of objects may be added at once, so they are not insertion-sorted
+    private static void mergeAdded(LayerSweep sweep) {
+        var added = sweep.added;
+        int addedCount = sweep.addedCount;
+        for(int i = 0 ; i < addedCount ; i++)
+            computeBounds(added[i]);
+        Arrays.sort(added, 0, addedCount, (entry1, entry2) -> Float.compare(entry1.minX, entry2.minX));
+        int newSize = sweep.size + addedCount;
+        var merged = new Entry[Math.max(INITIAL_CAPACITY, Math.max(sweep.sorted.length, newSize))];
+        int i = 0, j = 0, k = 0;
+        while(i < sweep.size && j < addedCount)
+            merged[k++] = sweep.sorted[i].minX <= added[j].minX ? sweep.sorted[i++] : added[j++];
+        while(i < sweep.size)
+            merged[k++] = sweep.sorted[i++];
+        while(j < addedCount)
+            merged[k++] = added[j++];
+        sweep.sorted = merged;
+        sweep.size = newSize;
+        Arrays.fill(added, 0, addedCount, null);
+        sweep.addedCount = 0;
+    }
+
+    private static void sweepSameLayer(LayerSweep sweep, BiConsumer<GameObject, GameObject> handlePair) {
+        var sorted = sweep.sorted;
+        for(int i = 0 ; i < sweep.size ; i++) {
+            var entry = sorted[i];
+            for(int j = i + 1 ; j < sweep.size && sorted[j].minX <= entry.maxX ; j++) {
+                var other = sorted[j];
+                if(overlapVertically(entry, other) && entry.gameObject != other.gameObject) {
+                    if(entry.sequence < other.sequence)
+                        handlePair.accept(entry.gameObject, other.gameObject);
+                    else
+                        handlePair.accept(other.gameObject, entry.gameObject);
+                }
+            }
+        }
+    }
+
+    //whichever of the two entries of a pair starts first finds the other
+    private static void sweepTwoLayers(LayerSweep sweep1, LayerSweep sweep2,
+                                       BiConsumer<GameObject, GameObject> handlePair) {
+        var sorted1 = sweep1.sorted;
+        var sorted2 = sweep2.sorted;
+        int i = 0, j = 0;
+        while(i < sweep1.size && j < sweep2.size) {
+            if(sorted1[i].minX <= sorted2[j].minX) {
+                var entry = sorted1[i++];
+                for(int k = j ; k < sweep2.size && sorted2[k].minX <= entry.maxX ; k++) {
+                    if(overlapVertically(entry, sorted2[k]) && entry.gameObject != sorted2[k].gameObject)
+                        handlePair.accept(entry.gameObject, sorted2[k].gameObject);
+                }
+            }
+            else {
+                var entry = sorted2[j++];
+                for(int k = i ; k < sweep1.size && sorted1[k].minX <= entry.maxX ; k++) {
+                    if(overlapVertically(entry, sorted1[k]) && entry.gameObject != sorted1[k].gameObject)
+                        handlePair.accept(sorted1[k].gameObject, entry.gameObject);
+                }
+            }
+        }
+    }
+
+    //records the versions of the object's transform and collider, and returns whether they changed
+    private static boolean updateVersions(Entry entry) {
+        var collider = entry.gameObject.physics().collider();
+        int transformVersion = entry.gameObject.transform().version();
+        int colliderVersion = collider == null ? 0 : collider.version();
+        if(entry.collider == collider && entry.transformVersion == transformVersion
+                && entry.colliderVersion == colliderVersion)
+            return false;
+        entry.collider = collider;
+        entry.transformVersion = transformVersion;
+        entry.colliderVersion = colliderVersion;
+        return true;
+    }
+
+    private static boolean overlapVertically(Entry entry1, Entry entry2) {
+        return entry1.minY <= entry2.maxY && entry2.minY <= entry1.maxY;
+    }
+
+    private static void computeBounds(Entry entry) {
+        if(!updateVersions(entry))
+            return;
+        var gameObject = entry.gameObject;
+        if(!(gameObject.physics().collider() instanceof AABBCollider)) {
+            //unknown extent: overlaps everything
+            entry.minX = entry.minY = Float.NEGATIVE_INFINITY;
+            entry.maxX = entry.maxY = Float.POSITIVE_INFINITY;
+            return;
+        }
+        var topLeft = gameObject.getTopLeftCorner();
+        var dimensions = gameObject.getDimensions();
+        var rect = ((AABBCollider)gameObject.physics().collider()).getRectangle();
+        entry.minX = topLeft.x() + rect.x * dimensions.x();
+        entry.minY = topLeft.y() + rect.y * dimensions.y();
+        entry.maxX = entry.minX + rect.width * dimensions.x();
+        entry.maxY = entry.minY + rect.height * dimensions.y();
+    }
+}
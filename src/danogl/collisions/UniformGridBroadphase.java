@@ -0,0 +1,177 @@
+package danogl.collisions;
+
+import danogl.GameObject;
+import danogl.util.LongHashMap;
+import danogl.util.ModifiableList;
+
+import java.util.function.BiConsumer;
+
+/**
+ * A broadphase that keeps the objects of every layer in a {@link SpatialGrid},
+ * and only pairs objects sharing at least one grid cell. The grids are updated
+ * incrementally: once per frame, only objects that moved to a different range of cells
+ * are re-hashed. Thus the cost of a frame is proportional to the number of objects
+ * near each other rather than to the size of the world.
+ * <br>The cell size should be a few times larger than the typical object.
+ * Objects much larger than a cell (see {@link SpatialGrid#MAX_CELLS_PER_ENTRY}) are
+ * paired with every object of the other layer, as in {@link BruteForceBroadphase}.
+ */
+public class UniformGridBroadphase implements Broadphase {
+    /** The cell size used by the parameterless constructor */
+    public static final float DEFAULT_CELL_SIZE = 128;
+
+    private static class LayerGrid {
+        final SpatialGrid grid;
+        int lastRefreshedFrame = -1;
+
+        LayerGrid(float cellSize) { grid = new SpatialGrid(cellSize); }
+    }
+
+    private final float cellSize;
+    private final LongHashMap<LayerGrid> gridOfLayer = new LongHashMap<>();
+    private int frame = 0;
+
+    //state of the pairing currently in progress, used by pairVisitor
+    private final SpatialGrid.EntryVisitor pairVisitor = this::visitNeighbor;
+    private BiConsumer<GameObject, GameObject> handlePair;
+    private SpatialGrid.Entry source;
+    private boolean isSourceInFirstLayer;
+    private boolean isSameLayer;
+
+    /**
+     * Creates a grid broadphase with cells of {@link #DEFAULT_CELL_SIZE}.
+     */
+    public UniformGridBroadphase() {
+        this(DEFAULT_CELL_SIZE);
+    }
+
+    /**
+     * Creates a grid broadphase.
+     * @param cellSize the edge of a single grid cell, in world units.
+     */
+    public UniformGridBroadphase(float cellSize) {
+        if(cellSize <= 0)
+            throw new IllegalArgumentException("Cell size must be positive");
+        this.cellSize = cellSize;
+    }
+
+    /** The edge of a single grid cell, in world units */
+    public float cellSize() { return cellSize; }
+
+    @Override
+    public void objectAdded(GameObject obj, int layerId) {
+        var layerGrid = gridOfLayer.get(layerId);
+        if(layerGrid == null) {
+            layerGrid = new LayerGrid(cellSize);
+            gridOfLayer.put(layerId, layerGrid);
+        }
+        layerGrid.grid.insert(obj);
+    }
+
+    @Override
+    public void objectRemoved(GameObject obj, int layerId) {
+        var layerGrid = gridOfLayer.get(layerId);
+        if(layerGrid != null)
+            layerGrid.grid.remove(obj);
+    }
+
+    @Override
+    public void beginFrame() {
+        frame++;
+    }
+
+    @Override
+    public void handleLayers(int layer1Id, ModifiableList<GameObject> layer1Objects,
+                             int layer2Id, ModifiableList<GameObject> layer2Objects,
+                             BiConsumer<GameObject, GameObject> handlePair) {
+        var grid1 = refreshedGrid(layer1Id);
+        var grid2 = refreshedGrid(layer2Id);
+        if(grid1 == null || grid2 == null)
+            return;
+        this.handlePair = handlePair;
+        if(layer1Id == layer2Id)
+            handleSameLayer(grid1);
+        else
+            handleTwoLayers(grid1, grid2);
+        this.handlePair = null;
+        this.source = null;
+    }
+
+    private SpatialGrid refreshedGrid(int layerId) {
+        var layerGrid = gridOfLayer.get(layerId);
+        if(layerGrid == null)
+            return null;
+        //grids of layers that never collide are left alone
+        if(layerGrid.lastRefreshedFrame != frame) {
+            layerGrid.grid.refresh();
+            layerGrid.lastRefreshedFrame = frame;
+        }
+        return layerGrid.grid;
+    }
+
+    private void handleSameLayer(SpatialGrid grid) {
+        isSameLayer = true;
+        var entries = grid.entries();
+        for(int i = 0 ; i < entries.size() ; i++) {
+            var entry = entries.get(i);
+            if(entry.isOversized)
+                continue;
+            source = entry;
+            grid.forEachNear(entry, pairVisitor);
+        }
+        //oversized entries are paired with everything
+        var oversizedEntries = grid.oversizedEntries();
+        for(int i = 0 ; i < oversizedEntries.size() ; i++) {
+            var oversized = oversizedEntries.get(i);
+            for(int j = 0 ; j < entries.size() ; j++) {
+                var other = entries.get(j);
+                if(other == oversized || (other.isOversized && other.sequence < oversized.sequence))
+                    continue;
+                emitInInsertionOrder(oversized, other);
+            }
+        }
+    }
+
+    private void handleTwoLayers(SpatialGrid grid1, SpatialGrid grid2) {
+        isSameLayer = false;
+        //iterate the smaller layer, query the larger one
+        isSourceInFirstLayer = grid1.size() <= grid2.size();
+        var sourceGrid = isSourceInFirstLayer ? grid1 : grid2;
+        var targetGrid = isSourceInFirstLayer ? grid2 : grid1;
+        var sourceEntries = sourceGrid.entries();
+        var targetEntries = targetGrid.entries();
+        var targetOversizedEntries = targetGrid.oversizedEntries();
+        for(int i = 0 ; i < sourceEntries.size() ; i++) {
+            source = sourceEntries.get(i);
+            if(source.isOversized) {
+                for(int j = 0 ; j < targetEntries.size() ; j++)
+                    visitNeighbor(targetEntries.get(j));
+                continue;
+            }
+            targetGrid.forEachNear(source, pairVisitor);
+            for(int j = 0 ; j < targetOversizedEntries.size() ; j++)
+                visitNeighbor(targetOversizedEntries.get(j));
+        }
+    }
+
+    private void visitNeighbor(SpatialGrid.Entry neighbor) {
+        if(neighbor.gameObject == source.gameObject)
+            return;
+        if(isSameLayer) {
+            //each unordered pair is found from both sides; keep only one
+            if(neighbor.sequence > source.sequence)
+                handlePair.accept(source.gameObject, neighbor.gameObject);
+        }
+        else if(isSourceInFirstLayer)
+            handlePair.accept(source.gameObject, neighbor.gameObject);
+        else
+            handlePair.accept(neighbor.gameObject, source.gameObject);
+    }
+
+    private void emitInInsertionOrder(SpatialGrid.Entry entry1, SpatialGrid.Entry entry2) {
+        if(entry1.sequence < entry2.sequence)
+            handlePair.accept(entry1.gameObject, entry2.gameObject);
+        else
+            handlePair.accept(entry2.gameObject, entry1.gameObject);
+    }
+}
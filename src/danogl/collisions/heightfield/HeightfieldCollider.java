@@ -0,0 +1,83 @@
+package danogl.collisions.heightfield;
+
+import danogl.collisions.Collider;
+import danogl.util.Vector2;
+
+import java.util.Arrays;
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * A collider for a surface described by its height along the x axis, such as terrain.
+ * The x axis is divided into columns of equal width; everything below the surface of
+ * a column is solid, with no bottom and no horizontal bound. Like any collider,
+ * it is expressed in object-coordinates, so it is easiest to use with an object
+ * positioned at the origin with dimensions of (1,1), in which case object-coordinates
+ * are world-coordinates.
+ * <br>The surface of each column is computed by a supplied function and cached, so
+ * the function should be deterministic; call {@link #invalidate()} if it changes.
+ */
+public class HeightfieldCollider implements Collider {
+    public static final String HEIGHTFIELD_COLLIDER_TYPE = "Heightfield";
+    //must be a power of two
+    private static final int CACHE_SIZE = 1024;
+
+    private final float columnWidth;
+    private final DoubleUnaryOperator surfaceAt;
+    //a direct-mapped cache: column c is kept in slot c & (CACHE_SIZE-1)
+    private final float[] cachedSurfaces = new float[CACHE_SIZE];
+    private final int[] cachedColumns = new int[CACHE_SIZE];
+    private final boolean[] isSlotUsed = new boolean[CACHE_SIZE];
+
+    /**
+     * Create a new heightfield collider.
+     * @param columnWidth the width of a single column, in object-coordinates.
+     * @param surfaceAt given the x of a column's left edge, returns the y of the
+     *                  column's surface. Both are in object-coordinates.
+     */
+    public HeightfieldCollider(float columnWidth, DoubleUnaryOperator surfaceAt) {
+        if(columnWidth <= 0)
+            throw new IllegalArgumentException("Column width must be positive");
+        this.columnWidth = columnWidth;
+        this.surfaceAt = surfaceAt;
+    }
+
+    @Override
+    public String colliderType() {
+        return HEIGHTFIELD_COLLIDER_TYPE;
+    }
+
+    @Override
+    public boolean containsPoint(Vector2 point) {
+        return point.y() >= surfaceOfColumn(columnAt(point.x()));
+    }
+
+    /** The width of a single column, in object-coordinates */
+    public float columnWidth() { return columnWidth; }
+
+    /**
+     * The index of the column containing the given x, in object-coordinates.
+     */
+    public int columnAt(float objectSpaceX) {
+        return (int)Math.floor(objectSpaceX / columnWidth);
+    }
+
+    /**
+     * The y of the given column's surface, in object-coordinates.
+     */
+    public float surfaceOfColumn(int column) {
+        int slot = column & (CACHE_SIZE - 1);
+        if(!isSlotUsed[slot] || cachedColumns[slot] != column) {
+            cachedSurfaces[slot] = (float)surfaceAt.applyAsDouble(column * columnWidth);
+            cachedColumns[slot] = column;
+            isSlotUsed[slot] = true;
+        }
+        return cachedSurfaces[slot];
+    }
+
+    /**
+     * Discards the cached surfaces, so they are recomputed on demand.
+     */
+    public void invalidate() {
+        Arrays.fill(isSlotUsed, false);
+    }
+}
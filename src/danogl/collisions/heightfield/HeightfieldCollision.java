@@ -0,0 +1,75 @@
+package danogl.collisions.heightfield;
+
+import danogl.collisions.Collision;
+import danogl.util.MutableVector2;
+import danogl.util.Vector2;
+
+/**
+ * package-private.
+ * Encapsulates the collision info for a single GameObject in a single contact
+ * of a heightfield-AABB pair.
+ * The normal is computed from the box's side, as for AABBs, and the heightfield receives
+ * its opposite.
+ */
+class HeightfieldCollision implements Collision {
+    private HeightfieldPairCollisionData pairCollisionData;
+    private int myIndex;
+    private int contact;
+    private MutableVector2 normal, collisionPoint,
+            penetrationArea, relativeVelocity;
+
+    public HeightfieldCollision(HeightfieldPairCollisionData pairCollisionData,
+                                int myIndex, int contact) {
+        this.pairCollisionData = pairCollisionData;
+        this.myIndex = myIndex;
+        this.contact = contact;
+    }
+
+    @Override
+    public void onFrameStart() { }
+
+    @Override
+    public Vector2 getNormal() {
+        if(normal == null)
+            normal = new MutableVector2();
+        var box = pairCollisionData.getBoxWorld();
+        var intersection = pairCollisionData.getIntersectionRect(contact);
+        normal.setXY(
+                (float)(box.getCenterX() - intersection.getCenterX()),
+                (float)(box.getCenterY() - intersection.getCenterY()));
+        //a box sunk entirely into the surface is pushed up
+        if(normal.x() == 0 && normal.y() == 0)
+            normal.setXY(0, -1);
+        normal.selfNormalize();
+        if(pairCollisionData.isHeightfield(myIndex))
+            normal.selfMult(-1);
+        return normal;
+    }
+
+    @Override
+    public Vector2 getCollisionPoint() {
+        if(collisionPoint == null)
+            collisionPoint = new MutableVector2();
+        var intersection = pairCollisionData.getIntersectionRect(contact);
+        collisionPoint.setXY((float)intersection.getCenterX(), (float)intersection.getCenterY());
+        return collisionPoint;
+    }
+
+    @Override
+    public Vector2 getPenetrationArea() {
+        if(penetrationArea == null)
+            penetrationArea = new MutableVector2();
+        var intersection = pairCollisionData.getIntersectionRect(contact);
+        penetrationArea.setXY(intersection.width, intersection.height);
+        return penetrationArea;
+    }
+
+    @Override
+    public Vector2 getRelativeVelocity() {
+        if(relativeVelocity == null)
+            relativeVelocity = new MutableVector2();
+        relativeVelocity.setXY(pairCollisionData.getGameObject(myIndex).getVelocity());
+        return relativeVelocity.selfSubtract(
+                pairCollisionData.getGameObject(1 - myIndex).getVelocity());
+    }
+}
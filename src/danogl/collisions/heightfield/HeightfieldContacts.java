@@ -0,0 +1,112 @@
+package danogl.collisions.heightfield;
+
+import danogl.GameObject;
+import danogl.collisions.AABB.AABBCollider;
+
+import java.awt.geom.Rectangle2D;
+
+/**
+ * package-private.
+ * Computes the contacts of a box with a heightfield, analytically from the columns under
+ * the box. The box is tested against the highest of these columns, intersected with
+ * the contiguous run of equally high columns around it as if the run were a single solid
+ * rectangle. If that contact is mostly horizontal, the run is a wall, and a second contact
+ * is computed the same way from the columns on the box's side of the wall: the floor the
+ * box stands on. Thus there are at most two contacts, and the cost is proportional to the
+ * box's width in columns, regardless of the extent of the heightfield.
+ */
+class HeightfieldContacts {
+    static final int MAX_CONTACTS = 2;
+
+    final Rectangle2D.Float boxWorld = new Rectangle2D.Float();
+    final Rectangle2D.Float[] contacts = {new Rectangle2D.Float(), new Rectangle2D.Float()};
+    int contactCount;
+
+    //bounds of the run found by the last call to findContact
+    private int runStart, runEnd;
+
+    /**
+     * Computes the contacts of the given objects.
+     * @param heightfieldObject a game object whose collider is a {@link HeightfieldCollider}.
+     * @param boxObject a game object whose collider is an {@link AABBCollider}.
+     * @return the number of contacts, 0 if the objects do not intersect.
+     */
+    int compute(GameObject heightfieldObject, GameObject boxObject) {
+        contactCount = 0;
+        var heightfield = (HeightfieldCollider)heightfieldObject.physics().collider();
+        var rect = ((AABBCollider)boxObject.physics().collider()).getRectangle();
+        var boxCorner = boxObject.getTopLeftCorner();
+        var boxDimensions = boxObject.getDimensions();
+        boxWorld.setRect(
+                boxCorner.x() + rect.x*boxDimensions.x(),
+                boxCorner.y() + rect.y*boxDimensions.y(),
+                rect.width * boxDimensions.x(),
+                rect.height * boxDimensions.y());
+        if(boxWorld.isEmpty())
+            return 0;
+
+        //the columns under the box
+        var fieldCorner = heightfieldObject.getTopLeftCorner();
+        var fieldDimensions = heightfieldObject.getDimensions();
+        float minU = (boxWorld.x - fieldCorner.x()) / fieldDimensions.x();
+        float maxU = (boxWorld.x + boxWorld.width - fieldCorner.x()) / fieldDimensions.x();
+        int minColumn = heightfield.columnAt(minU);
+        //a box ending exactly on a column's edge does not touch that column
+        int maxColumn = Math.max(minColumn,
+                (int)Math.ceil(maxU / heightfield.columnWidth()) - 1);
+
+        if(!findContact(heightfieldObject, heightfield, minColumn, maxColumn, contacts[0]))
+            return 0;
+        contactCount = 1;
+        var first = contacts[0];
+        if(first.width > first.height)
+            return contactCount;
+
+        //the run is a wall; find the floor on the side holding most of the box
+        int wallStart = runStart, wallEnd = runEnd;
+        double boxCenter = boxWorld.getCenterX();
+        boolean isFloorToTheLeft = boxCenter < first.getCenterX();
+        if(isFloorToTheLeft ? wallStart == minColumn : wallEnd == maxColumn)
+            isFloorToTheLeft = !isFloorToTheLeft;
+        if(isFloorToTheLeft ? wallStart == minColumn : wallEnd == maxColumn)
+            return contactCount;
+        boolean hasFloor = isFloorToTheLeft
+                ? findContact(heightfieldObject, heightfield, minColumn, wallStart - 1, contacts[1])
+                : findContact(heightfieldObject, heightfield, wallEnd + 1, maxColumn, contacts[1]);
+        if(hasFloor)
+            contactCount++;
+        return contactCount;
+    }
+
+    private boolean findContact(GameObject heightfieldObject, HeightfieldCollider heightfield,
+                                int minColumn, int maxColumn, Rectangle2D.Float contact) {
+        //the highest column has the smallest surface y
+        int highestColumn = minColumn;
+        for(int column = minColumn + 1 ; column <= maxColumn ; column++) {
+            if(heightfield.surfaceOfColumn(column) < heightfield.surfaceOfColumn(highestColumn))
+                highestColumn = column;
+        }
+        var fieldCorner = heightfieldObject.getTopLeftCorner();
+        var fieldDimensions = heightfieldObject.getDimensions();
+        float surface = heightfield.surfaceOfColumn(highestColumn);
+        float surfaceWorld = fieldCorner.y() + surface * fieldDimensions.y();
+        float bottom = boxWorld.y + boxWorld.height;
+        if(bottom <= surfaceWorld)
+            return false;
+
+        runStart = runEnd = highestColumn;
+        while(runStart > minColumn && heightfield.surfaceOfColumn(runStart - 1) == surface)
+            runStart--;
+        while(runEnd < maxColumn && heightfield.surfaceOfColumn(runEnd + 1) == surface)
+            runEnd++;
+        float columnWidthWorld = heightfield.columnWidth() * fieldDimensions.x();
+        float left = Math.max(boxWorld.x, fieldCorner.x() + runStart * columnWidthWorld);
+        float right = Math.min(boxWorld.x + boxWorld.width,
+                fieldCorner.x() + (runEnd + 1) * columnWidthWorld);
+        float top = Math.max(boxWorld.y, surfaceWorld);
+        if(right <= left)
+            return false;
+        contact.setRect(left, top, right - left, bottom - top);
+        return true;
+    }
+}
@@ -0,0 +1,83 @@
+package danogl.collisions.heightfield;
+
+import danogl.GameObject;
+import danogl.collisions.Collision;
+import danogl.collisions.PairCollisionData;
+
+import java.awt.geom.Rectangle2D;
+
+/**
+ * package-private.
+ * Responsible for computing and caching the collision data for a heightfield
+ * and an AABB.
+ */
+class HeightfieldPairCollisionData extends PairCollisionData {
+    private final int heightfieldIndex;
+    private final HeightfieldContacts contacts = new HeightfieldContacts();
+    //collisions[contact][object index]
+    private final HeightfieldCollision[][] collisions =
+            new HeightfieldCollision[HeightfieldContacts.MAX_CONTACTS][2];
+    private boolean alreadyComputedContactsThisFrame = false;
+
+    /**
+     * @param heightfieldIndex the index (0 or 1) of the object whose collider is the heightfield.
+     */
+    public HeightfieldPairCollisionData(GameObject go1, GameObject go2, int heightfieldIndex) {
+        super(go1, go2);
+        this.heightfieldIndex = heightfieldIndex;
+        for(int contact = 0 ; contact < collisions.length ; contact++) {
+            collisions[contact][0] = new HeightfieldCollision(this, 0, contact);
+            collisions[contact][1] = new HeightfieldCollision(this, 1, contact);
+        }
+        collision1 = collisions[0][0];
+        collision2 = collisions[0][1];
+    }
+
+    @Override
+    public void onFrameStart() {
+        alreadyComputedContactsThisFrame = false;
+    }
+
+    public void updateContacts() {
+        if(alreadyComputedContactsThisFrame)
+            return;
+        contacts.compute(getGameObject(heightfieldIndex), getGameObject(1 - heightfieldIndex));
+        alreadyComputedContactsThisFrame = true;
+    }
+
+    @Override
+    public boolean areColliding() {
+        return contactCount() > 0;
+    }
+
+    @Override
+    public int contactCount() {
+        updateContacts();
+        return contacts.contactCount;
+    }
+
+    @Override
+    public Collision getCollision(int index, int contact) {
+        if(index != 0 && index != 1)
+            throw new IndexOutOfBoundsException();
+        return collisions[contact][index];
+    }
+
+    public boolean isHeightfield(int index) {
+        return index == heightfieldIndex;
+    }
+
+    public Rectangle2D.Float getBoxWorld() {
+        updateContacts();
+        return contacts.boxWorld;
+    }
+
+    /**
+     * The intersection of the box and the heightfield in the given contact.
+     * If the pair currently has fewer contacts, this is the last computed one.
+     */
+    public Rectangle2D.Float getIntersectionRect(int contact) {
+        updateContacts();
+        return contacts.contacts[contact];
+    }
+}
@@ -0,0 +1,48 @@
+package danogl.collisions.heightfield;
+
+import danogl.GameObject;
+import danogl.collisions.AABB.AABBCollider;
+import danogl.collisions.PairCollisionData;
+import danogl.collisions.PairCollisionHandler;
+
+/**
+ * Responsible for detecting collisions between a GameObject whose collider is
+ * a {@link HeightfieldCollider} and a GameObject whose collider is an AABB.
+ * Is not responsible for resolving the collision.
+ * <br>Contacts are computed analytically from the few columns under the box, so the cost
+ * does not depend on the extent of the heightfield. A box may touch the heightfield in two
+ * places at once: a wall it pushes against and the floor it stands on. Each is reported as
+ * a separate contact (see {@link PairCollisionData#contactCount()}).
+ * <br>To use it, register it through
+ * {@link danogl.collisions.GameObjectCollection#registerPairCollisionHandler}.
+ */
+public class HeightfieldPairCollisionHandler implements PairCollisionHandler {
+    private final HeightfieldContacts contacts = new HeightfieldContacts();
+
+    @Override
+    public PairCollisionData computeCollisionData(GameObject go1, GameObject go2) {
+        if(!supportsPair(go1, go2))
+            return null;
+        boolean isFirstHeightfield = isHeightfield(go1);
+        var heightfieldObject = isFirstHeightfield ? go1 : go2;
+        var boxObject = isFirstHeightfield ? go2 : go1;
+        if(contacts.compute(heightfieldObject, boxObject) == 0)
+            return null;
+        return new HeightfieldPairCollisionData(go1, go2, isFirstHeightfield ? 0 : 1);
+    }
+
+    @Override
+    public boolean supportsPair(GameObject go1, GameObject go2) {
+        return (isHeightfield(go1) && isAABB(go2)) || (isAABB(go1) && isHeightfield(go2));
+    }
+
+    private static boolean isHeightfield(GameObject gameObject) {
+        return gameObject.physics().collider().colliderType()
+                .equals(HeightfieldCollider.HEIGHTFIELD_COLLIDER_TYPE);
+    }
+
+    private static boolean isAABB(GameObject gameObject) {
+        return gameObject.physics().collider().colliderType()
+                .equals(AABBCollider.AABB_COLLIDER_TYPE);
+    }
+}
@@ -0,0 +1,5 @@
+/**
+ * Implementation of collisions between a heightfield (a surface described by the height
+ * of each column, such as terrain) and axis-aligned-bounding-boxes (AABBs)
+ */
+package danogl.collisions.heightfield;
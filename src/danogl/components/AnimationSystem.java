@@ -0,0 +1,261 @@
+package danogl.components;
+
+import danogl.GameObject;
+import danogl.collisions.LayerListener;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Advances the {@link Transition}s of a game in a single loop.
+ * The state of every transition (its progress, edge values, easing and type) is stored in
+ * parallel arrays of primitives, and its values are handed to primitive setters, so
+ * advancing thousands of transitions allocates nothing and walks memory in order.
+ * A Transition is a handle onto a slot of these arrays.
+ * <br>GameManager owns a system and advances it every frame, see
+ * {@link danogl.GameManager#animations()}. Added to a GameObjectCollection as a
+ * {@link LayerListener}, the system cancels the transitions of objects that leave the game.
+ */
+public class AnimationSystem implements LayerListener {
+    static final byte EASING_LINEAR = 0;
+    static final byte EASING_CUBIC = 1;
+
+    private static final int INITIAL_CAPACITY = 64;
+    private static final Transition.TransitionType[] TRANSITION_TYPES =
+            Transition.TransitionType.values();
+
+    //transition state, indexed by slot
+    private Transition<?>[] handles = new Transition<?>[INITIAL_CAPACITY];
+    private float[] t = new float[INITIAL_CAPACITY];
+    private byte[] directions = new byte[INITIAL_CAPACITY];
+    private float[] durations = new float[INITIAL_CAPACITY];
+    private float[] initialX = new float[INITIAL_CAPACITY];
+    private float[] finalX = new float[INITIAL_CAPACITY];
+    private float[] initialY = new float[INITIAL_CAPACITY];
+    private float[] finalY = new float[INITIAL_CAPACITY];
+    private byte[] easings = new byte[INITIAL_CAPACITY];
+    private byte[] types = new byte[INITIAL_CAPACITY];
+    private Transition.FloatSetter[] floatSetters = new Transition.FloatSetter[INITIAL_CAPACITY];
+    private Transition.VectorSetter[] vectorSetters = new Transition.VectorSetter[INITIAL_CAPACITY];
+    private Runnable[] onReachingFinalValue = new Runnable[INITIAL_CAPACITY];
+    private int count = 0;
+    //cancelled slots are only emptied by compact, so advance can run while callbacks cancel
+    private int cancelledCount = 0;
+
+    private final Map<GameObject, Transition<?>> firstTransitionOfOwner = new IdentityHashMap<>();
+    private final OwnerDepartures ownerDepartures = new OwnerDepartures();
+    private final Consumer<GameObject> cancelOwnedBy = this::cancelOwnedBy;
+
+    /**
+     * Advances all transitions, handing each its new value.
+     * Transitions started during this call are first advanced in the next call.
+     * @param deltaTime the time that passed, in seconds.
+     */
+    public void advance(float deltaTime) {
+        int end = count;
+        for(int i = 0 ; i < end ; i++) {
+            if(handles[i] == null)
+                continue;
+            float ti = t[i] + directions[i] * deltaTime / durations[i];
+            ti = Math.max(Math.min(1, ti), 0);
+            t[i] = ti;
+            float x = interpolate(easings[i], initialX[i], finalX[i], ti);
+            if(vectorSetters[i] != null)
+                vectorSetters[i].set(x, interpolate(easings[i], initialY[i], finalY[i], ti));
+            else
+                floatSetters[i].set(x);
+            if(ti >= 1) {
+                if(onReachingFinalValue[i] != null) {
+                    onReachingFinalValue[i].run();
+                    if(handles[i] == null) //cancelled by the callback
+                        continue;
+                }
+                switch(TRANSITION_TYPES[types[i]]) {
+                    case TRANSITION_BACK_AND_FORTH:
+                        directions[i] *= -1;
+                        break;
+                    case TRANSITION_LOOP:
+                        t[i] = 0;
+                        break;
+                    case TRANSITION_ONCE:
+                        cancel(handles[i]);
+                        continue;
+                }
+            }
+            if(t[i] <= 0) //then going back and forth
+                directions[i] *= -1;
+        }
+        if(cancelledCount > 0)
+            compact();
+    }
+
+    /**
+     * Cancels all the transitions of the given object.
+     */
+    public void cancelOwnedBy(GameObject owner) {
+        Transition<?> transition;
+        while((transition = firstTransitionOfOwner.get(owner)) != null)
+            cancel(transition);
+    }
+
+    /**
+     * Cancels all transitions.
+     */
+    public void clear() {
+        for(int i = 0 ; i < count ; i++) {
+            if(handles[i] != null)
+                handles[i].slot = -1;
+        }
+        Arrays.fill(handles, 0, count, null);
+        Arrays.fill(floatSetters, 0, count, null);
+        Arrays.fill(vectorSetters, 0, count, null);
+        Arrays.fill(onReachingFinalValue, 0, count, null);
+        count = 0;
+        cancelledCount = 0;
+        firstTransitionOfOwner.clear();
+        ownerDepartures.clear();
+    }
+
+    /** The number of running transitions */
+    public int activeCount() { return count - cancelledCount; }
+
+    @Override
+    public void objectAdded(GameObject obj, int layerId) {
+        if(firstTransitionOfOwner.containsKey(obj))
+            ownerDepartures.ownerAdded(obj);
+    }
+
+    @Override
+    public void objectRemoved(GameObject obj, int layerId) {
+        if(firstTransitionOfOwner.containsKey(obj))
+            ownerDepartures.ownerRemoved(obj);
+    }
+
+    @Override
+    public void layersFlushed() {
+        ownerDepartures.layersFlushed(cancelOwnedBy);
+    }
+
+    /**
+     * package-private, used by Transition. Exactly one of floatSetter and vectorSetter is non-null;
+     * the y values are ignored for a float transition.
+     */
+    void add(Transition<?> handle, GameObject owner, byte easing,
+             Transition.TransitionType type, float transitionTime,
+             float initialXValue, float finalXValue, float initialYValue, float finalYValue,
+             Transition.FloatSetter floatSetter, Transition.VectorSetter vectorSetter,
+             Runnable onReachingFinalValue) {
+        if(count == handles.length)
+            grow();
+        int slot = count++;
+        handles[slot] = handle;
+        t[slot] = 0;
+        directions[slot] = 1;
+        durations[slot] = transitionTime;
+        initialX[slot] = initialXValue;
+        finalX[slot] = finalXValue;
+        initialY[slot] = initialYValue;
+        finalY[slot] = finalYValue;
+        easings[slot] = easing;
+        types[slot] = (byte)type.ordinal();
+        floatSetters[slot] = floatSetter;
+        vectorSetters[slot] = vectorSetter;
+        this.onReachingFinalValue[slot] = onReachingFinalValue;
+        handle.system = this;
+        handle.slot = slot;
+
+        var first = firstTransitionOfOwner.put(owner, handle);
+        handle.owner = owner;
+        handle.nextOfOwner = first;
+        if(first != null)
+            first.previousOfOwner = handle;
+    }
+
+    /**
+     * package-private, used by Transition. Has no effect if the transition is not running.
+     */
+    void cancel(Transition<?> handle) {
+        int slot = handle.slot;
+        if(slot < 0 || handles[slot] != handle)
+            return;
+        handles[slot] = null;
+        floatSetters[slot] = null;
+        vectorSetters[slot] = null;
+        onReachingFinalValue[slot] = null;
+        handle.slot = -1;
+        cancelledCount++;
+
+        if(handle.previousOfOwner != null)
+            handle.previousOfOwner.nextOfOwner = handle.nextOfOwner;
+        else if(handle.nextOfOwner != null)
+            firstTransitionOfOwner.put(handle.owner, handle.nextOfOwner);
+        else
+            firstTransitionOfOwner.remove(handle.owner);
+        if(handle.nextOfOwner != null)
+            handle.nextOfOwner.previousOfOwner = handle.previousOfOwner;
+        handle.previousOfOwner = handle.nextOfOwner = null;
+    }
+
+    private static float interpolate(byte easing, float initialValue, float finalValue, float t) {
+        //the same arithmetic as Transition's built-in interpolators
+        if(easing == EASING_CUBIC)
+            return (2*initialValue-2*finalValue)*t*t*t + (3*finalValue-3*initialValue)*t*t + initialValue;
+        return (1-t)*initialValue + t*finalValue;
+    }
+
+    //moves the last running transitions into cancelled slots
+    private void compact() {
+        int i = 0;
+        while(i < count) {
+            if(handles[i] != null) {
+                i++;
+                continue;
+            }
+            int last = --count;
+            if(last != i)
+                move(last, i);
+            handles[last] = null;
+            floatSetters[last] = null;
+            vectorSetters[last] = null;
+            onReachingFinalValue[last] = null;
+        }
+        cancelledCount = 0;
+    }
+
+    private void move(int from, int to) {
+        handles[to] = handles[from];
+        t[to] = t[from];
+        directions[to] = directions[from];
+        durations[to] = durations[from];
+        initialX[to] = initialX[from];
+        finalX[to] = finalX[from];
+        initialY[to] = initialY[from];
+        finalY[to] = finalY[from];
+        easings[to] = easings[from];
+        types[to] = types[from];
+        floatSetters[to] = floatSetters[from];
+        vectorSetters[to] = vectorSetters[from];
+        onReachingFinalValue[to] = onReachingFinalValue[from];
+        if(handles[to] != null)
+            handles[to].slot = to;
+    }
+
+    private void grow() {
+        int capacity = handles.length * 2;
+        handles = Arrays.copyOf(handles, capacity);
+        t = Arrays.copyOf(t, capacity);
+        directions = Arrays.copyOf(directions, capacity);
+        durations = Arrays.copyOf(durations, capacity);
+        initialX = Arrays.copyOf(initialX, capacity);
+        finalX = Arrays.copyOf(finalX, capacity);
+        initialY = Arrays.copyOf(initialY, capacity);
+        finalY = Arrays.copyOf(finalY, capacity);
+        easings = Arrays.copyOf(easings, capacity);
+        types = Arrays.copyOf(types, capacity);
+        floatSetters = Arrays.copyOf(floatSetters, capacity);
+        vectorSetters = Arrays.copyOf(vectorSetters, capacity);
+        onReachingFinalValue = Arrays.copyOf(onReachingFinalValue, capacity);
+    }
+}
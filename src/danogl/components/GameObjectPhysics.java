@@ -3,6 +3,9 @@ package danogl.components;
 import danogl.collisions.Collider;
 import danogl.util.Vector2;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * Encapsulates the physics-related attributes of a GameObject
  * @author Dan Nirel
@@ -16,9 +19,34 @@ public class GameObjectPhysics {
      */
     public static final float IMMOVABLE_MASS = Float.MAX_VALUE;
 
+    /**
+     * The number of frames an object must rest (neither move nor change its transform in any way)
+     * before it stops being {@link BodyType#DYNAMIC}.
+     */
+    public static final int FRAMES_BEFORE_RESTING = 30;
+
+    /**
+     * How an object takes part in collision detection. Pairs of objects neither of which
+     * is dynamic are not checked for collisions: since neither changed lately, whether they
+     * collide did not change either. Such pairs keep colliding, but without onCollisionStay.
+     */
+    public enum BodyType {
+        /** Moved or changed within the last {@link #FRAMES_BEFORE_RESTING} frames */
+        DYNAMIC,
+        /** At rest, but can be moved by collisions; woken up by touching a dynamic object */
+        SLEEPING,
+        /** At rest, and of {@link #IMMOVABLE_MASS} */
+        STATIC
+    }
+
     private Collider collider;
     private Vector2 dirToPrevent = null;
     private float mass = 1f;
+    private BodyType bodyType = BodyType.DYNAMIC;
+    private int restingFrames = 0;
+    private int transformVersion = -1;
+    //null until a listener is added
+    private List<Runnable> wakeUpListeners;
 
     /**
      * Returns the object's collider
@@ -32,6 +60,7 @@ public class GameObjectPhysics {
      */
     public void setCollider(Collider collider) {
         this.collider = collider;
+        wakeUp();
     }
 
     /**
@@ -50,6 +79,7 @@ public class GameObjectPhysics {
      */
     public void preventIntersectionsFromDirection(Vector2 dirToPrevent) {
         this.dirToPrevent = dirToPrevent == null?null:dirToPrevent.getImmutableCopy();
+        wakeUp();
     }
 
     /**
@@ -66,5 +96,75 @@ public class GameObjectPhysics {
      */
     public void setMass(float mass) {
         this.mass = mass;
+        wakeUp();
+    }
+
+    /**
+     * The object's current body type.
+     * @see BodyType
+     */
+    public BodyType bodyType() {
+        return bodyType;
+    }
+
+    /**
+     * Is the object dynamic, meaning its collisions are checked with all objects.
+     * @see BodyType
+     */
+    public boolean isAwake() {
+        return bodyType == BodyType.DYNAMIC;
+    }
+
+    /**
+     * Makes the object dynamic, and restarts counting the frames it rests.
+     * Changes to the object's transform or physics wake it up automatically, as soon as
+     * they are made.
+     */
+    public void wakeUp() {
+        restingFrames = 0;
+        if(bodyType == BodyType.DYNAMIC)
+            return;
+        bodyType = BodyType.DYNAMIC;
+        if(wakeUpListeners != null) {
+            for(int i = 0 ; i < wakeUpListeners.size() ; i++)
+                wakeUpListeners.get(i).run();
+        }
+    }
+
+    /**
+     * Adds a callback that is run whenever the object stops resting, i.e. whenever its body
+     * type changes back to {@link BodyType#DYNAMIC}. Lets structures that stop following
+     * resting objects, such as {@link danogl.collisions.SpatialGrid}, resume when they move.
+     */
+    public void addWakeUpListener(Runnable listener) {
+        if(wakeUpListeners == null)
+            wakeUpListeners = new ArrayList<>(2);
+        wakeUpListeners.add(listener);
+    }
+
+    /**
+     * Removes a callback added by {@link #addWakeUpListener(Runnable)}.
+     */
+    public void removeWakeUpListener(Runnable listener) {
+        if(wakeUpListeners != null)
+            wakeUpListeners.remove(listener);
+    }
+
+    /**
+     * Counts the frames the object rests, and updates its body type accordingly.
+     * Called by GameObject once per frame, before updating the transform.
+     * @param transform the object's transform
+     */
+    public void updateBodyType(Transform transform) {
+        int version = transform.version();
+        boolean isResting = version == transformVersion &&
+                transform.getVelocity().isZero() && transform.getAcceleration().isZero();
+        transformVersion = version;
+        if(!isResting) {
+            wakeUp();
+            return;
+        }
+        if(restingFrames < FRAMES_BEFORE_RESTING && ++restingFrames == FRAMES_BEFORE_RESTING)
+            bodyType = mass == IMMOVABLE_MASS ? BodyType.STATIC : BodyType.SLEEPING;
     }
 }
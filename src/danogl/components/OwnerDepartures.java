@@ -0,0 +1,43 @@
+package danogl.components;
+
+import danogl.GameObject;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * package-private, used by the LayerListeners of this package that cancel work owned by
+ * GameObjects once they leave the game.
+ * An object moved between layers is reported as removed and added within a single flush,
+ * so an owner is only known to have left once all layers were flushed.
+ */
+class OwnerDepartures {
+    //owners that joined (+) or left (-) layers since the layers were last flushed
+    private final Map<GameObject, Integer> layerChanges = new IdentityHashMap<>();
+
+    void ownerAdded(GameObject owner) {
+        layerChanges.merge(owner, 1, Integer::sum);
+    }
+
+    void ownerRemoved(GameObject owner) {
+        layerChanges.merge(owner, -1, Integer::sum);
+    }
+
+    /**
+     * Calls onDeparture with every owner that left the game since the last call.
+     */
+    void layersFlushed(Consumer<GameObject> onDeparture) {
+        if(layerChanges.isEmpty())
+            return;
+        for(var entry : layerChanges.entrySet()) {
+            if(entry.getValue() < 0)
+                onDeparture.accept(entry.getKey());
+        }
+        layerChanges.clear();
+    }
+
+    void clear() {
+        layerChanges.clear();
+    }
+}
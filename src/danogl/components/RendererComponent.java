@@ -1,6 +1,7 @@
 package danogl.components;
 
 import danogl.GameObject;
+import danogl.gui.rendering.RenderSnapshot;
 import danogl.gui.rendering.Renderable;
 import danogl.util.Vector2;
 
@@ -48,6 +49,19 @@ public class RendererComponent implements Component {
                 isFlippedHorizontally, isFlippedVertically, opaqueness);
     }
 
+    /**
+     * Like {@link #render(Graphics2D, Vector2, Vector2)}, but appends a draw command
+     * to a snapshot instead of drawing.
+     * @param builder the snapshot being captured
+     * @param topLeftCorner the GameObject's position
+     * @param dimensions the GameObject's dimensions
+     */
+    public void capture(RenderSnapshot.Builder builder, Vector2 topLeftCorner, Vector2 dimensions) {
+        builder.add(renderable, topLeftCorner, dimensions,
+                renderableDegreesCounterclockwise,
+                isFlippedHorizontally, isFlippedVertically, opaqueness);
+    }
+
     /**
      * @return The current Renderable.
      */
@@ -147,7 +161,7 @@ public class RendererComponent implements Component {
      * @param afterFadeIn a function to execute when the fadeIn is over
      */
     public void fadeIn(float fadeInTime, Runnable afterFadeIn) {
-        new Transition<>(gameObject, this::setOpaqueness, getOpaqueness(), 1f,
+        Transition.ofFloat(gameObject, this::setOpaqueness, getOpaqueness(), 1f,
                 Transition.LINEAR_INTERPOLATOR_FLOAT, fadeInTime,
                 Transition.TransitionType.TRANSITION_ONCE,
                 afterFadeIn);
@@ -159,7 +173,7 @@ public class RendererComponent implements Component {
      * @param afterFadeOut a function to execute when the fadeOut is over
      */
     public void fadeOut(float fadeOutTime, Runnable afterFadeOut) {
-        new Transition<>(gameObject, this::setOpaqueness, getOpaqueness(), 0f,
+        Transition.ofFloat(gameObject, this::setOpaqueness, getOpaqueness(), 0f,
                 Transition.LINEAR_INTERPOLATOR_FLOAT, fadeOutTime,
                 Transition.TransitionType.TRANSITION_ONCE,
                 afterFadeOut);
@@ -1,9 +1,14 @@
 package danogl.components;
 
+import danogl.GameManager;
 import danogl.GameObject;
 
 /**
- * A component for scheduling a task for execution at a later time
+ * A component for scheduling a task for execution at a later time.
+ * When created while a game runs on the same thread (see {@link GameManager#running()}),
+ * the task is scheduled in that game's {@link TimerWheel} (see {@link GameManager#timers()}),
+ * so it costs nothing until it elapses. Otherwise, it falls back to counting time as a
+ * component of its GameObject.
  * @author Dan Nirel
  */
 public class ScheduledTask implements Component {
@@ -11,14 +16,18 @@ public class ScheduledTask implements Component {
     private final float waitTime;
     private final boolean repeat;
     private final Runnable onElapsed;
+    private final TimerWheel timerWheel;
+    private final Runnable onTimer = this::onTimer;
 
     private double timePassed = 0;
+    private TimerWheel.Timer timer;
 
     /**
      * Create a scheduled task. No other calls to the object are necessary.
      * @param gameObjectToUpdateThrough A GameObject related to the task.
-     *                                  It is not actually important what GameObject is supplied here.
-     *                                  The task will become a Component of that object,
+     *                                  When a game is running, the task stops once this object
+     *                                  is removed from the game. Otherwise, the task
+     *                                  will become a Component of that object,
      *                                  as a means of calling this task's update method.
      *                                  If and when possible, the task will remove itself
      *                                  from the object's components.
@@ -36,7 +45,12 @@ public class ScheduledTask implements Component {
         this.waitTime = waitTime;
         this.repeat = repeat;
         this.onElapsed = onElapsed;
-        gameObjectToUpdateThrough.addComponent(this);
+        var game = GameManager.running();
+        timerWheel = game == null ? null : game.timers();
+        if(timerWheel != null)
+            schedule();
+        else
+            gameObjectToUpdateThrough.addComponent(this);
     }
 
     /**
@@ -45,10 +59,16 @@ public class ScheduledTask implements Component {
      */
     public void reset() {
         timePassed = 0;
+        if(timer != null && timer.isPending()) {
+            timer.cancel();
+            schedule();
+        }
     }
 
     @Override
     public void update(float deltaTime) {
+        if(timerWheel != null)
+            return; //run by the wheel
         timePassed += deltaTime;
         if(timePassed >= waitTime) {
             if(onElapsed != null)
@@ -59,4 +79,14 @@ public class ScheduledTask implements Component {
                 gameObjectToUpdateThrough.removeComponent(this);
         }
     }
+
+    private void schedule() {
+        timer = timerWheel.schedule(waitTime, gameObjectToUpdateThrough, onTimer);
+    }
+
+    private void onTimer() {
+        onElapsed.run();
+        if(repeat)
+            schedule();
+    }
 }
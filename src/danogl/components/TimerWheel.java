@@ -0,0 +1,234 @@
+package danogl.components;
+
+import danogl.GameObject;
+import danogl.collisions.LayerListener;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * A hierarchical timer wheel: runs callbacks once game time reaches their deadlines.
+ * Time is divided into ticks of {@link #TICK_SECONDS}, and pending timers are kept in
+ * slots by deadline: the finest level holds one slot per tick, and each coarser level holds
+ * slots spanning a whole turn of the level below it. When the finer level completes a turn,
+ * the next slot of the coarser level is spread into it. Thus a pending timer costs nothing
+ * per frame; advancing costs a small constant per tick, plus the timers that fire or
+ * move between levels.
+ * <br>Time only advances through {@link #advance(float)}, so timers follow game time.
+ * GameManager owns a wheel and advances it every frame, see {@link danogl.GameManager#timers()}.
+ * <br>A timer may have an owner. Added to a GameObjectCollection as a {@link LayerListener},
+ * the wheel cancels the timers of objects that leave the game (but not of objects that
+ * merely move to another layer).
+ */
+public class TimerWheel implements LayerListener {
+    /** The resolution of the wheel, in seconds */
+    public static final float TICK_SECONDS = 0.001f;
+
+    private static final int BITS_PER_LEVEL = 6;
+    private static final int SLOTS_PER_LEVEL = 1 << BITS_PER_LEVEL;
+    private static final int SLOT_MASK = SLOTS_PER_LEVEL - 1;
+    private static final int LEVELS = 5;
+    //timers further than this are placed at this distance, and re-placed when reached
+    private static final long MAX_DISTANCE = (1L << (BITS_PER_LEVEL * LEVELS)) - 1;
+
+    /**
+     * A callback scheduled in a {@link TimerWheel}.
+     */
+    public static final class Timer {
+        private final TimerWheel wheel;
+        private final Runnable callback;
+        private final GameObject owner;
+        private long deadline;
+        private int level = -1, slot;
+        private Timer previous, next;
+        private Timer previousOfOwner, nextOfOwner;
+
+        private Timer(TimerWheel wheel, Runnable callback, GameObject owner, long deadline) {
+            this.wheel = wheel;
+            this.callback = callback;
+            this.owner = owner;
+            this.deadline = deadline;
+        }
+
+        /** Is the timer still waiting to fire */
+        public boolean isPending() { return level >= 0; }
+
+        /**
+         * Prevents the timer from firing. Has no effect if it already fired or was cancelled.
+         */
+        public void cancel() {
+            if(!isPending())
+                return;
+            wheel.unlink(this);
+            wheel.unlinkFromOwner(this);
+        }
+    }
+
+    private final Timer[][] slots = new Timer[LEVELS][SLOTS_PER_LEVEL];
+    private final Map<GameObject, Timer> firstTimerOfOwner = new IdentityHashMap<>();
+    private final OwnerDepartures ownerDepartures = new OwnerDepartures();
+    private final Consumer<GameObject> cancelOwnedBy = this::cancelOwnedBy;
+    private long currentTick = 0;
+    private double untickedSeconds = 0;
+    private int pendingCount = 0;
+
+    /**
+     * Schedules a callback.
+     * @param delay the time, in seconds, until the callback runs. The callback runs in the
+     *              first call to {@link #advance} that reaches its deadline, and never in
+     *              the call to advance during which it was scheduled.
+     * @param owner a GameObject whose removal from the game cancels the timer, or null.
+     * @param callback the callback.
+     * @return a handle to the timer, which can cancel it.
+     */
+    public Timer schedule(float delay, GameObject owner, Runnable callback) {
+        if(callback == null)
+            throw new NullPointerException("Timer callback cannot be null");
+        long ticks = Math.max(1, (long)Math.ceil(delay / TICK_SECONDS));
+        var timer = new Timer(this, callback, owner, currentTick + ticks);
+        place(timer);
+        pendingCount++;
+        if(owner != null) {
+            var first = firstTimerOfOwner.put(owner, timer);
+            timer.nextOfOwner = first;
+            if(first != null)
+                first.previousOfOwner = timer;
+        }
+        return timer;
+    }
+
+    /**
+     * Advances time, running the callbacks of all timers whose deadlines are reached,
+     * in order of deadline.
+     * @param deltaTime the time that passed, in seconds.
+     */
+    public void advance(float deltaTime) {
+        untickedSeconds += deltaTime;
+        long ticks = (long)(untickedSeconds / TICK_SECONDS);
+        untickedSeconds -= ticks * (double)TICK_SECONDS;
+        for(long i = 0 ; i < ticks ; i++) {
+            currentTick++;
+            if(pendingCount > 0)
+                processTick();
+        }
+    }
+
+    /**
+     * Cancels all the timers owned by the given object.
+     */
+    public void cancelOwnedBy(GameObject owner) {
+        Timer timer;
+        while((timer = firstTimerOfOwner.get(owner)) != null)
+            timer.cancel();
+    }
+
+    /**
+     * Cancels all timers.
+     */
+    public void clear() {
+        for(var levelSlots : slots) {
+            for(int slot = 0 ; slot < SLOTS_PER_LEVEL ; slot++) {
+                for(var timer = levelSlots[slot] ; timer != null ; timer = timer.next)
+                    timer.level = -1;
+                levelSlots[slot] = null;
+            }
+        }
+        firstTimerOfOwner.clear();
+        ownerDepartures.clear();
+        pendingCount = 0;
+    }
+
+    /** The number of timers waiting to fire */
+    public int pendingCount() { return pendingCount; }
+
+    @Override
+    public void objectAdded(GameObject obj, int layerId) {
+        if(firstTimerOfOwner.containsKey(obj))
+            ownerDepartures.ownerAdded(obj);
+    }
+
+    @Override
+    public void objectRemoved(GameObject obj, int layerId) {
+        if(firstTimerOfOwner.containsKey(obj))
+            ownerDepartures.ownerRemoved(obj);
+    }
+
+    @Override
+    public void layersFlushed() {
+        ownerDepartures.layersFlushed(cancelOwnedBy);
+    }
+
+    private void processTick() {
+        //spread coarser slots whose span begins now into finer levels, coarsest first
+        int cascadeLevels = 0;
+        while(cascadeLevels + 1 < LEVELS
+                && (currentTick & ((1L << (BITS_PER_LEVEL * (cascadeLevels + 1))) - 1)) == 0)
+            cascadeLevels++;
+        for(int level = cascadeLevels ; level >= 1 ; level--)
+            cascade(level);
+
+        int slot = (int)(currentTick & SLOT_MASK);
+        Timer timer;
+        //callbacks may schedule or cancel timers, so the slot is re-read every time
+        while((timer = slots[0][slot]) != null) {
+            unlink(timer);
+            unlinkFromOwner(timer);
+            timer.callback.run();
+        }
+    }
+
+    private void cascade(int level) {
+        int slot = (int)((currentTick >>> (BITS_PER_LEVEL * level)) & SLOT_MASK);
+        var timer = slots[level][slot];
+        slots[level][slot] = null;
+        while(timer != null) {
+            var next = timer.next;
+            timer.previous = timer.next = null;
+            place(timer);
+            timer = next;
+        }
+    }
+
+    private void place(Timer timer) {
+        long distance = Math.min(timer.deadline - currentTick, MAX_DISTANCE);
+        long placedDeadline = currentTick + Math.max(0, distance);
+        int level = 0;
+        while(level + 1 < LEVELS && distance >= (1L << (BITS_PER_LEVEL * (level + 1))))
+            level++;
+        timer.level = level;
+        timer.slot = (int)((placedDeadline >>> (BITS_PER_LEVEL * level)) & SLOT_MASK);
+        var first = slots[level][timer.slot];
+        timer.next = first;
+        timer.previous = null;
+        if(first != null)
+            first.previous = timer;
+        slots[level][timer.slot] = timer;
+    }
+
+    private void unlink(Timer timer) {
+        if(timer.previous != null)
+            timer.previous.next = timer.next;
+        else
+            slots[timer.level][timer.slot] = timer.next;
+        if(timer.next != null)
+            timer.next.previous = timer.previous;
+        timer.previous = timer.next = null;
+        timer.level = -1;
+        pendingCount--;
+    }
+
+    private void unlinkFromOwner(Timer timer) {
+        if(timer.owner == null)
+            return;
+        if(timer.previousOfOwner != null)
+            timer.previousOfOwner.nextOfOwner = timer.nextOfOwner;
+        else if(timer.nextOfOwner != null)
+            firstTimerOfOwner.put(timer.owner, timer.nextOfOwner);
+        else
+            firstTimerOfOwner.remove(timer.owner);
+        if(timer.nextOfOwner != null)
+            timer.nextOfOwner.previousOfOwner = timer.previousOfOwner;
+        timer.previousOfOwner = timer.nextOfOwner = null;
+    }
+}
@@ -15,6 +15,13 @@ public class Transform implements Component {
     private MutableVector2 velocityToApply = new MutableVector2(Vector2.ZERO);
     private MutableVector2 acceleration = new MutableVector2(Vector2.ZERO);
     private boolean isAccelerationEnabled = true;
+    private int version = 0;
+    //run whenever the version changes, see setChangeListener
+    private Runnable changeListener;
+    //for rendering between fixed timesteps, see GameManager.setFixedTimestep
+    private MutableVector2 previousTopLeftCorner;
+    private MutableVector2 renderedTopLeftCorner;
+    private boolean isRenderingInterpolated = false;
 
     private static MutableVector2 freeComputationVector = new MutableVector2();
 
@@ -37,14 +44,70 @@ public class Transform implements Component {
      * Set the position of the object's top-left corner
      */
     public void setTopLeftCorner(Vector2 topLeftCorner) {
-        this.topLeftCorner.setXY(topLeftCorner);
+        setTopLeftCorner(topLeftCorner.x(), topLeftCorner.y());
     }
 
     /**
      * Set the position of the object's top-left corner
      */
     public void setTopLeftCorner(float x, float y) {
+        if(x == topLeftCorner.x() && y == topLeftCorner.y())
+            return;
         this.topLeftCorner.setXY(x, y);
+        changed();
+    }
+
+    /**
+     * Remembers the current top-left corner as the state before the next fixed timestep.
+     * Rendering can then interpolate between it and the state after the step.
+     * Called by GameManager in fixed-timestep mode.
+     */
+    public void recordPreviousState() {
+        if(previousTopLeftCorner == null)
+            previousTopLeftCorner = new MutableVector2(topLeftCorner);
+        else
+            previousTopLeftCorner.setXY(topLeftCorner);
+    }
+
+    /**
+     * Forgets the state recorded by {@link #recordPreviousState()}, so that the next frames
+     * render the object where it is. Useful after teleporting an object in fixed-timestep mode,
+     * which would otherwise be rendered sweeping between its old and new positions.
+     */
+    public void discardPreviousState() {
+        previousTopLeftCorner = null;
+    }
+
+    /**
+     * Until {@link #endInterpolatedRendering()}, the object is rendered at the given fraction
+     * of the way from its previous state to its current state.
+     * Has no effect if no previous state was recorded.
+     * @param alpha in [0,1], where 0 is the previous state and 1 is the current state
+     */
+    public void beginInterpolatedRendering(float alpha) {
+        if(previousTopLeftCorner == null)
+            return;
+        if(renderedTopLeftCorner == null)
+            renderedTopLeftCorner = new MutableVector2();
+        renderedTopLeftCorner.setXY(
+                previousTopLeftCorner.x() + (topLeftCorner.x() - previousTopLeftCorner.x()) * alpha,
+                previousTopLeftCorner.y() + (topLeftCorner.y() - previousTopLeftCorner.y()) * alpha);
+        isRenderingInterpolated = true;
+    }
+
+    /**
+     * Renders the object at its current state again.
+     */
+    public void endInterpolatedRendering() {
+        isRenderingInterpolated = false;
+    }
+
+    /**
+     * The top-left corner the object is rendered at: the current top-left corner, unless
+     * rendering between fixed timesteps, see {@link #beginInterpolatedRendering(float)}.
+     */
+    public Vector2 getRenderedTopLeftCorner() {
+        return isRenderingInterpolated ? renderedTopLeftCorner : topLeftCorner;
     }
 
     /**
@@ -68,9 +131,12 @@ public class Transform implements Component {
             throw new IllegalArgumentException(
                     "Dimensions must be non-negative. "+
                             "To flip image, see setIsflippedHorizontally()/setIsflippedVertically()");
+        if(x == dimensions.x() && y == dimensions.y())
+            return;
         var oldCenter = getCenter();
         this.dimensions.setXY(x, y);
         setCenter(oldCenter);
+        changed();
     }
 
     /**
@@ -84,21 +150,21 @@ public class Transform implements Component {
      * Set the object's velocity
      */
     public void setVelocity(Vector2 velocity) {
-        this.velocity.setXY(velocity);
+        setVelocity(velocity.x(), velocity.y());
     }
 
     /**
      * Set the x-coordinate of the left side of the object
      */
     public void setTopLeftCornerX(float x) {
-        topLeftCorner.setX(x);
+        setTopLeftCorner(x, topLeftCorner.y());
     }
 
     /**
      * Set the y-coordinate of the top side of the object
      */
     public void setTopLeftCornerY(float y) {
-        topLeftCorner.setY(y);
+        setTopLeftCorner(topLeftCorner.x(), y);
     }
 
     /**
@@ -119,21 +185,24 @@ public class Transform implements Component {
      * Set the object's velocity
      */
     public void setVelocity(float x, float y) {
+        if(x == velocity.x() && y == velocity.y())
+            return;
         this.velocity.setXY(x, y);
+        changed();
     }
 
     /**
      * Set the object's x-velocity
      */
     public void setVelocityX(float x) {
-        velocity.setX(x);
+        setVelocity(x, velocity.y());
     }
 
     /**
      * Set the object's y-velocity
      */
     public void setVelocityY(float y) {
-        velocity.setY(y);
+        setVelocity(velocity.x(), y);
     }
 
     /**
@@ -150,7 +219,7 @@ public class Transform implements Component {
     public void setCenter(Vector2 center) {
         freeComputationVector.setXY(dimensions);
         freeComputationVector.selfMult(-0.5f).selfAdd(center);
-        topLeftCorner.setXY(freeComputationVector);
+        setTopLeftCorner(freeComputationVector.x(), freeComputationVector.y());
     }
 
     /**
@@ -165,14 +234,14 @@ public class Transform implements Component {
      * Reposition the center's x-position
      */
     public void setCenterX(float x) {
-        topLeftCorner.setX(x-0.5f*dimensions.x());
+        setTopLeftCornerX(x-0.5f*dimensions.x());
     }
 
     /**
      * Reposition the center's y-position
      */
     public void setCenterY(float y) {
-        topLeftCorner.setY(y-0.5f*dimensions.y());
+        setTopLeftCornerY(y-0.5f*dimensions.y());
     }
 
     /**
@@ -186,27 +255,30 @@ public class Transform implements Component {
      * Sets the object's acceleration
      */
     public void setAcceleration(Vector2 acceleration) {
-        this.acceleration.setXY(acceleration);
+        setAcceleration(acceleration.x(), acceleration.y());
     }
 
     /**
      * Sets the object's acceleration
      */    public void setAcceleration(float x, float y) {
+        if(x == acceleration.x() && y == acceleration.y())
+            return;
         this.acceleration.setXY(x, y);
+        changed();
     }
 
     /**
      * Sets the object's x-acceleration
      */
     public void setAccelerationX(float x) {
-        this.acceleration.setX(x);
+        setAcceleration(x, acceleration.y());
     }
 
     /**
      * Sets the object's y-acceleration
      */
     public void setAccelerationY(float y) {
-        this.acceleration.setY(y);
+        setAcceleration(acceleration.x(), y);
     }
 
     @Override
@@ -215,16 +287,40 @@ public class Transform implements Component {
             velocity.setXY(
                     velocity.x() + acceleration.x() * deltaTime,
                     velocity.y() + acceleration.y() * deltaTime);
+            changed();
             //using "midpoint"/"improved Euler" integration
             velocityToApply.selfAdd(getVelocity()).selfMult(0.5f);
         }
         if(!velocityToApply.isZero()) {
             velocityToApply.selfMult(deltaTime);
             topLeftCorner.selfAdd(velocityToApply);
+            changed();
         }
         velocityToApply.setXY(velocity);
     }
 
+    /**
+     * A number that changes whenever the position, dimensions, velocity or acceleration change,
+     * whether by a setter or by {@link #update(float)}. Comparing it to an earlier value tells
+     * whether anything changed in between.
+     */
+    public int version() { return version; }
+
+    /**
+     * Sets a callback that is run whenever the {@link #version()} changes.
+     * GameObject uses it to wake up its physics as soon as the transform changes.
+     * @param changeListener the callback, or null for none.
+     */
+    public void setChangeListener(Runnable changeListener) {
+        this.changeListener = changeListener;
+    }
+
+    private void changed() {
+        version++;
+        if(changeListener != null)
+            changeListener.run();
+    }
+
     /**
      * Is the acceleration applied in this frame. The answer will be false
      * if accelerating will cause the object to intersect with an object
@@ -1,5 +1,6 @@
 package danogl.components;
 
+import danogl.GameManager;
 import danogl.GameObject;
 import danogl.util.MutableVector2;
 import danogl.util.Vector2;
@@ -7,7 +8,14 @@ import danogl.util.Vector2;
 import java.util.function.Consumer;
 
 /**
- * Transition a value over a range
+ * Transition a value over a range.
+ * When created while a game runs on the same thread (see {@link GameManager#running()}) with
+ * a built-in interpolator, the transition is a handle onto that game's {@link AnimationSystem}
+ * (see {@link GameManager#animations()}), which advances all transitions in one batch and
+ * stops them when their GameObject is removed from the game. Otherwise, the transition
+ * updates itself as a component of its GameObject.
+ * Prefer {@link #ofFloat} and {@link #ofVector}, which hand the values to primitive setters
+ * instead of boxing them.
  * @param <T> The value's type
  * @author Dan Nirel
  */
@@ -35,6 +43,29 @@ public class Transition<T> implements Component {
         T interpolate(T val1, T val2, float t);
     }
 
+    /**
+     * Receives the values of a float transition, without boxing them.
+     */
+    @FunctionalInterface
+    public static interface FloatSetter {
+        /**
+         * @param value the transition's current value
+         */
+        void set(float value);
+    }
+
+    /**
+     * Receives the values of a Vector2 transition, without allocating vectors.
+     */
+    @FunctionalInterface
+    public static interface VectorSetter {
+        /**
+         * @param x the x coordinate of the transition's current value
+         * @param y the y coordinate of the transition's current value
+         */
+        void set(float x, float y);
+    }
+
     /**
      * Type of transition
      */
@@ -93,6 +124,12 @@ public class Transition<T> implements Component {
     private float t = 0;
     private int tAdvancementFactor = 1;
 
+    //the batched state, managed by the AnimationSystem
+    AnimationSystem system;
+    int slot = -1;
+    GameObject owner;
+    Transition<?> previousOfOwner, nextOfOwner;
+
     /************* Methods **************/
 
     /**
@@ -130,6 +167,67 @@ public class Transition<T> implements Component {
             float transitionTime,
             TransitionType transitionType,
             Runnable onReachingFinalValue) {
+        this(gameObjectToUpdateThrough, setValueCallback, initialValue, finalValue,
+                interpolator, transitionTime, transitionType, onReachingFinalValue, null, null);
+    }
+
+    /**
+     * Create a new Transition of a float, which hands its values to a primitive setter.
+     * The parameters are those of
+     * {@link #Transition(GameObject, Consumer, Object, Object, Interpolator, float, TransitionType, Runnable)}.
+     * @return the running transition.
+     */
+    public static Transition<Float> ofFloat(
+            GameObject gameObjectToUpdateThrough,
+            FloatSetter setValueCallback,
+            float initialValue,
+            float finalValue,
+            Interpolator<Float> interpolator,
+            float transitionTime,
+            TransitionType transitionType,
+            Runnable onReachingFinalValue) {
+        if(setValueCallback == null)
+            throw new NullPointerException("None of Transition's parameters may be null except onReachingFinalValue");
+        return new Transition<>(gameObjectToUpdateThrough, setValueCallback::set,
+                initialValue, finalValue, interpolator, transitionTime, transitionType,
+                onReachingFinalValue, setValueCallback, null);
+    }
+
+    /**
+     * Create a new Transition of a Vector2, which hands its values to a primitive setter.
+     * The parameters are those of
+     * {@link #Transition(GameObject, Consumer, Object, Object, Interpolator, float, TransitionType, Runnable)}.
+     * @return the running transition.
+     */
+    public static Transition<Vector2> ofVector(
+            GameObject gameObjectToUpdateThrough,
+            VectorSetter setValueCallback,
+            Vector2 initialValue,
+            Vector2 finalValue,
+            Interpolator<Vector2> interpolator,
+            float transitionTime,
+            TransitionType transitionType,
+            Runnable onReachingFinalValue) {
+        if(setValueCallback == null)
+            throw new NullPointerException("None of Transition's parameters may be null except onReachingFinalValue");
+        return new Transition<>(gameObjectToUpdateThrough,
+                value -> setValueCallback.set(value.x(), value.y()),
+                initialValue, finalValue, interpolator, transitionTime, transitionType,
+                onReachingFinalValue, null, setValueCallback);
+    }
+
+    //the primitive setters, if given, replace setValueCallback when the transition is batched
+    private Transition(
+            GameObject gameObjectToUpdateThrough,
+            Consumer<T> setValueCallback,
+            T initialValue,
+            T finalValue,
+            Interpolator<T> interpolator,
+            float transitionTime,
+            TransitionType transitionType,
+            Runnable onReachingFinalValue,
+            FloatSetter floatSetter,
+            VectorSetter vectorSetter) {
         this.onReachingFinalValue = onReachingFinalValue;
         if(gameObjectToUpdateThrough == null || setValueCallback == null
             || initialValue == null || finalValue == null
@@ -144,11 +242,26 @@ public class Transition<T> implements Component {
         this.transitionTime = transitionTime;
         this.transitionType = transitionType;
 
-        gameObjectToUpdateThrough.addComponent(this);
+        var game = GameManager.running();
+        var animations = game == null ? null : game.animations();
+        if(animations == null || !startBatched(animations, floatSetter, vectorSetter))
+            gameObjectToUpdateThrough.addComponent(this);
+    }
+
+    /**
+     * Stops the transition where it is. Has no effect if it is already over.
+     */
+    public void cancel() {
+        if(system != null)
+            system.cancel(this);
+        else
+            gameObjectToUpdateThrough.removeComponent(this);
     }
 
     @Override
     public void update(float deltaTime) {
+        if(system != null)
+            return; //advanced by the animation system
         t += tAdvancementFactor * deltaTime/transitionTime;
         t = Math.max(Math.min(1, t), 0);
         setValueCallback.accept(interpolator.interpolate(initialValue, finalValue, t));
@@ -170,4 +283,42 @@ public class Transition<T> implements Component {
         if(t <= 0) //then going back and forth
             tAdvancementFactor *= -1;
     }
+
+    //the built-in interpolators are the only ones the animation system can evaluate
+    @SuppressWarnings("unchecked")
+    private boolean startBatched(AnimationSystem animations,
+                                 FloatSetter floatSetter, VectorSetter vectorSetter) {
+        byte easing;
+        if(interpolator == LINEAR_INTERPOLATOR_FLOAT || interpolator == LINEAR_INTERPOLATOR_VECTOR)
+            easing = AnimationSystem.EASING_LINEAR;
+        else if(interpolator == CUBIC_INTERPOLATOR_FLOAT || interpolator == CUBIC_INTERPOLATOR_VECTOR)
+            easing = AnimationSystem.EASING_CUBIC;
+        else
+            return false;
+        if(interpolator == LINEAR_INTERPOLATOR_FLOAT || interpolator == CUBIC_INTERPOLATOR_FLOAT) {
+            if(floatSetter == null) {
+                var floatCallback = (Consumer<Float>) setValueCallback;
+                floatSetter = floatCallback::accept;
+            }
+            animations.add(this, gameObjectToUpdateThrough, easing, transitionType, transitionTime,
+                    (Float) initialValue, (Float) finalValue, 0, 0,
+                    floatSetter, null, onReachingFinalValue);
+        }
+        else {
+            if(vectorSetter == null) {
+                var vectorCallback = (Consumer<Vector2>) setValueCallback;
+                //like the built-in interpolators, passes the same mutable vector every time
+                vectorSetter = (x, y) -> {
+                    calcVec.setXY(x, y);
+                    vectorCallback.accept(calcVec);
+                };
+            }
+            var initialVector = (Vector2) initialValue;
+            var finalVector = (Vector2) finalValue;
+            animations.add(this, gameObjectToUpdateThrough, easing, transitionType, transitionTime,
+                    initialVector.x(), finalVector.x(), initialVector.y(), finalVector.y(),
+                    null, vectorSetter, onReachingFinalValue);
+        }
+        return true;
+    }
 }
@@ -0,0 +1,170 @@
+package danogl.gui;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Paces a game loop to a target frame-rate with sub-millisecond precision.
+ * Waiting parks the thread until shortly before the deadline, and yields in a loop for the
+ * rest. How early parking stops adapts to how much the platform was measured to oversleep,
+ * so that little time is spent yielding while deadlines are still met.
+ * <br>Deadlines are spaced exactly one frame apart, rather than one frame after each frame
+ * ends, so that the frame-rate does not drift. Once a frame ends after the next one should
+ * have started, the schedule restarts from the current time instead of rushing to catch up.
+ * <br>The pacer keeps statistics of the last {@link #WINDOW_FRAMES} frame times, which show
+ * how steady the frame-rate is.
+ */
+public class FramePacer {
+    /** The number of most recent frames the statistics are computed over */
+    public static final int WINDOW_FRAMES = 240;
+
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+    //before any oversleeping was measured, parking stops this early
+    private static final long INITIAL_OVERSLEEP_ESTIMATE_NANOS = 1_000_000;
+    //an outlying wakeup must not turn waiting into yielding for whole frames
+    private static final long MAX_OVERSLEEP_ESTIMATE_NANOS = 2_000_000;
+    //parking for less than this is not worth it; the rest is yielded
+    private static final long MIN_PARK_NANOS = 50_000;
+
+    private long oversleepEstimate = INITIAL_OVERSLEEP_ESTIMATE_NANOS;
+    private long nextDeadline = 0;
+    private long lastFrameStart = 0;
+    private long missedDeadlines = 0;
+
+    //frame times and their deviations from the target, in a ring
+    private final long[] frameNanos = new long[WINDOW_FRAMES];
+    private final long[] deviationNanos = new long[WINDOW_FRAMES];
+    private int ringIndex = 0;
+    private int sampleCount = 0;
+
+    /**
+     * Waits until the next frame should start, then marks its start.
+     * Should be called once per frame, at the end of the frame.
+     * @param targetFramerate frames per second. If not positive, the frame-rate is not
+     *                        limited, and the thread only yields.
+     * @return false if the deadline had already passed, meaning the frame took too long for
+     * the target frame-rate.
+     */
+    public boolean waitForNextFrame(int targetFramerate) {
+        long now = System.nanoTime();
+        long period = targetFramerate > 0 ? NANOS_PER_SECOND / targetFramerate : 0;
+        boolean isOnTime = true;
+        if(period == 0) {
+            Thread.yield();
+        }
+        else {
+            if(nextDeadline == 0)
+                nextDeadline = now;
+            nextDeadline += period;
+            if(now > nextDeadline) {
+                isOnTime = false;
+                missedDeadlines++;
+                //let other threads run even when behind, as sleeping did
+                Thread.yield();
+                nextDeadline = now;
+            }
+            else {
+                waitUntil(nextDeadline);
+            }
+        }
+        recordFrameStart(System.nanoTime(), period);
+        return isOnTime;
+    }
+
+    /**
+     * Waits until the given time: parks until the measured oversleep before it,
+     * then yields until it is reached.
+     * @param deadline in the time-base of {@link System#nanoTime()}.
+     */
+    public void waitUntil(long deadline) {
+        while(true) {
+            long remaining = deadline - System.nanoTime();
+            if(remaining <= 0)
+                return;
+            long toPark = remaining - oversleepEstimate;
+            if(toPark < MIN_PARK_NANOS) {
+                Thread.yield();
+                continue;
+            }
+            long parkStart = System.nanoTime();
+            LockSupport.parkNanos(this, toPark);
+            long oversleep = System.nanoTime() - parkStart - toPark;
+            updateOversleepEstimate(Math.max(0, Math.min(MAX_OVERSLEEP_ESTIMATE_NANOS, oversleep)));
+        }
+    }
+
+    /** The mean time between the starts of recent frames, in nanoseconds */
+    public double meanFrameNanos() {
+        if(sampleCount == 0)
+            return 0;
+        long sum = 0;
+        for(int i = 0 ; i < sampleCount ; i++)
+            sum += frameNanos[i];
+        return (double)sum / sampleCount;
+    }
+
+    /**
+     * The standard deviation of the time between the starts of recent frames, in nanoseconds.
+     * The lower, the steadier the frame-rate.
+     */
+    public double jitterNanos() {
+        if(sampleCount < 2)
+            return 0;
+        double mean = meanFrameNanos();
+        double sumOfSquares = 0;
+        for(int i = 0 ; i < sampleCount ; i++)
+            sumOfSquares += (frameNanos[i] - mean) * (frameNanos[i] - mean);
+        return Math.sqrt(sumOfSquares / (sampleCount - 1));
+    }
+
+    /**
+     * The largest difference between a recent frame's time and the target frame time,
+     * in nanoseconds. 0 if the frame-rate was not limited.
+     */
+    public long maxDeviationNanos() {
+        long max = 0;
+        for(int i = 0 ; i < sampleCount ; i++)
+            max = Math.max(max, deviationNanos[i]);
+        return max;
+    }
+
+    /** The number of frames sampled by the statistics, at most {@link #WINDOW_FRAMES} */
+    public int sampleCount() { return sampleCount; }
+
+    /** The number of frames that ended after the next frame should have started, since the last reset */
+    public long missedDeadlines() { return missedDeadlines; }
+
+    /** How much earlier than a deadline parking currently stops, in nanoseconds */
+    public long oversleepEstimateNanos() { return oversleepEstimate; }
+
+    /**
+     * Discards the statistics, and restarts the schedule from the next frame.
+     * The oversleep estimate is kept.
+     */
+    public void reset() {
+        nextDeadline = 0;
+        lastFrameStart = 0;
+        missedDeadlines = 0;
+        ringIndex = 0;
+        sampleCount = 0;
+    }
+
+    private void updateOversleepEstimate(long oversleep) {
+        //grows quickly, so that late wakeups stop soon; shrinks slowly, so that one
+        //punctual wakeup does not cause the next deadline to be missed
+        if(oversleep > oversleepEstimate)
+            oversleepEstimate = (oversleepEstimate + oversleep) / 2;
+        else
+            oversleepEstimate -= (oversleepEstimate - oversleep) / 16;
+    }
+
+    private void recordFrameStart(long frameStart, long period) {
+        if(lastFrameStart != 0) {
+            long frame = frameStart - lastFrameStart;
+            frameNanos[ringIndex] = frame;
+            deviationNanos[ringIndex] = period == 0 ? 0 : Math.abs(frame - period);
+            ringIndex = (ringIndex + 1) % WINDOW_FRAMES;
+            sampleCount = Math.min(sampleCount + 1, WINDOW_FRAMES);
+        }
+        lastFrameStart = frameStart;
+    }
+}
@@ -4,6 +4,7 @@ import danogl.GameManager;
 import danogl.GameObject;
 import danogl.gui.rendering.ImageRenderable;
 import danogl.gui.rendering.OvalRenderable;
+import danogl.gui.rendering.RenderSnapshot;
 import danogl.gui.rendering.Renderable;
 import danogl.util.Vector2;
 
@@ -15,24 +16,25 @@ import java.awt.image.BufferStrategy;
 import java.awt.image.BufferedImage;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
 
 /**
  * The class depends on a GameManager it receives in the constructor:
- * it calls GameManager's initializeGame()), update() and render() methods.
+ * it calls GameManager's initializeGame()), tick() and render() methods.
  * Thus normal use of the engine shouldn't be concerned about this class.
  * @author Dan Nirel
  * @see GameManager
  */
 public class GameGUIComponent extends Canvas implements WindowController {
     private static final String LOADSCREEN_PATH = "danoglAssets/DanoGameLabLoading.png";
-    private static final int INITIAL_MIN_IDLE_TIME_IN_MILLIS = 3;
     private static final int FPS_HITS_BEFORE_WARNING_USER = 100;
     private static final float LOADSCREEN_FRAMES = 20;
     //if the game is running an FPS less than 1/MAX_FRAME_TIME, it will be slowed down
     private static final float MAX_FRAME_TIME = 0.1f;
 
     private int targetFramerate = 120;
-    private int minIdleTimeInMillis = INITIAL_MIN_IDLE_TIME_IN_MILLIS;
+    private final FramePacer framePacer = new FramePacer();
     private JFrame window;
     private float timescale = 1;
     private boolean isRunning = false;
@@ -49,6 +51,11 @@ public class GameGUIComponent extends Canvas implements WindowController {
     private KeyboardMouseUserInputListener inputListener;
     private BufferStrategy bufferStrategy;
     private MessageHandler messageHandler = new MessageHandler(this);
+    //pipelined rendering, see GameManager.setPipelinedRendering
+    private final RenderSnapshot.Builder snapshotBuilder = new RenderSnapshot.Builder();
+    private final AtomicReference<RenderSnapshot> latestSnapshot = new AtomicReference<>();
+    private final Object bufferStrategyLock = new Object();
+    private Thread renderThread;
 
     public GameGUIComponent(
             GameManager gameManager,
@@ -112,6 +119,7 @@ public class GameGUIComponent extends Canvas implements WindowController {
         );
 
         //game loop
+        framePacer.reset();
         long timAtPrevFrameStart = System.nanoTime();
         isRunning = true;
         while(isRunning) {
@@ -123,14 +131,17 @@ public class GameGUIComponent extends Canvas implements WindowController {
             if(inputListener.wasKeyReleasedThisFrame(pauseButton))
                 isPaused = !isPaused;
             if(!isPaused)
-                gameManager.update(Math.min(MAX_FRAME_TIME, deltaTime * timescale));
+                gameManager.tick(Math.min(MAX_FRAME_TIME, deltaTime * timescale));
             inputListener.update(deltaTime);
-            render();
+            if(gameManager.isRenderingPipelined())
+                publishSnapshot();
+            else
+                render();
             if(!isRunning)
                 continue;
-            long frameTime = System.nanoTime()-timeAtFrameStart;
-            idleTime(frameTime);
+            idleTime();
         }
+        gameManager.endGame();
         removeKeyListener(inputListener);
     }
 
@@ -154,6 +165,12 @@ public class GameGUIComponent extends Canvas implements WindowController {
         return messages().openYesNoDialog(msg);
     }
 
+    /**
+     * The pacer that waits between frames to reach the target frame-rate,
+     * and keeps statistics of the frame times.
+     */
+    public FramePacer framePacer() { return framePacer; }
+
     public double getTimeScale() { return timescale; }
     public void setTimeScale(float value) { timescale = value; }
 
@@ -217,8 +234,71 @@ public class GameGUIComponent extends Canvas implements WindowController {
     }
 
     private void render() {
-        Graphics g = bufferStrategy.getDrawGraphics();
-        Graphics2D g2d = ((Graphics2D)g);
+        synchronized (bufferStrategyLock) {
+            Graphics2D g2d = beginDrawing();
+            if(gameManager != null && isRunning) {
+                gameManager.render(g2d);
+                if (renderableCursor != null) {
+                    renderableCursor.render(
+                            g2d,
+                            inputListener.getMouseScreenPos().add(cursorOffset),
+                            cursorDimensions);
+                }
+            }
+            if(loadScreen != null) {
+                loadScreen.render(g2d);
+                updateLoadScreen();
+            }
+            finishDrawing(g2d);
+        }
+    }
+
+    //captures what render would draw, and hands it to the render thread
+    private void publishSnapshot() {
+        gameManager.captureRenderSnapshot(snapshotBuilder);
+        if (renderableCursor != null) {
+            snapshotBuilder.add(
+                    renderableCursor,
+                    inputListener.getMouseScreenPos().add(cursorOffset),
+                    cursorDimensions);
+        }
+        if(loadScreen != null) {
+            loadScreen.capture(snapshotBuilder, null);
+            updateLoadScreen();
+        }
+        //a snapshot that was not drawn yet is replaced, skipping its frame
+        latestSnapshot.set(snapshotBuilder.build());
+        if(renderThread == null) {
+            renderThread = new Thread(this::drawSnapshots, "DanoGameLab render thread");
+            renderThread.setDaemon(true);
+            renderThread.start();
+        }
+        LockSupport.unpark(renderThread);
+    }
+
+    private void drawSnapshots() {
+        while(true) {
+            var snapshot = latestSnapshot.getAndSet(null);
+            if(snapshot == null) {
+                LockSupport.park(this);
+                continue;
+            }
+            try {
+                synchronized (bufferStrategyLock) {
+                    Graphics2D g2d = beginDrawing();
+                    snapshot.render(g2d);
+                    finishDrawing(g2d);
+                }
+            } catch (RuntimeException e) {
+                messages().showMessage(
+                        "Failed to render a frame: " + e,
+                        MsgLevel.ERROR);
+            }
+        }
+    }
+
+    private Graphics2D beginDrawing() {
+        Graphics2D g2d = (Graphics2D)bufferStrategy.getDrawGraphics();
 
         g2d.setBackground(Color.WHITE);
         g2d.clearRect(0,0,(int)windowDimensions.x(),(int)windowDimensions.y());
@@ -226,35 +306,24 @@ public class GameGUIComponent extends Canvas implements WindowController {
 
         g2d.setRenderingHint(
                 RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        return g2d;
+    }
 
-        if(gameManager != null && isRunning) {
-            gameManager.render(g2d);
-            if (renderableCursor != null) {
-                renderableCursor.render(
-                        g2d,
-                        inputListener.getMouseScreenPos().add(cursorOffset),
-                        cursorDimensions);
-            }
-        }
-        if(loadScreen != null) {
-            loadScreen.render(g2d);
-            loadScreen.update(1);
-            if(loadScreen.renderer().getOpaqueness() <= 0)
-                loadScreen = null;
-        }
-        g.dispose();
+    private void finishDrawing(Graphics2D g2d) {
+        g2d.dispose();
         bufferStrategy.show(); // flip screen
     }
 
-    private void idleTime(long frameTime) {
-        //in order to reach a frame rate of 100 for example, each
-        //frame should take 10 millis (1000/100=10).
-        //by now the frame already took frameTime (supplied in nanoseconds)
-        //so sleep the remainder. Painting, which is executed on a helper thread,
-        //is expected to run during this time.
-        double millisToSleep = 1000D/ targetFramerate - frameTime/1_000_000D;
-        millisToSleep = Math.max(millisToSleep, minIdleTimeInMillis);
-        if(millisToSleep == minIdleTimeInMillis) {
+    private void updateLoadScreen() {
+        loadScreen.update(1);
+        if(loadScreen.renderer().getOpaqueness() <= 0)
+            loadScreen = null;
+    }
+
+    private void idleTime() {
+        //in order to reach a frame rate of 100 for example, each frame should
+        //start 10 millis (1000/100=10) after the previous one.
+        if(!framePacer.waitForNextFrame(targetFramerate)) {
             fpsHits++;
             if(fpsHits == FPS_HITS_BEFORE_WARNING_USER) {
                 messages().showMessage(
@@ -268,12 +337,5 @@ public class GameGUIComponent extends Canvas implements WindowController {
                     MsgLevel.WARNING);
             }
         }
-        try {
-            Thread.sleep((int)millisToSleep);
-        } catch (InterruptedException e) {
-            messages().showMessage(
-                    "Failed to sleep: " + e.getMessage(),
-                    MsgLevel.WARNING);
-        }
     }
 }
@@ -0,0 +1,235 @@
+package danogl.gui.headless;
+
+import danogl.GameManager;
+import danogl.gui.ImageReader;
+import danogl.gui.MessageHandler;
+import danogl.gui.OutputMode;
+import danogl.gui.WindowController;
+import danogl.gui.rendering.Renderable;
+import danogl.util.Vector2;
+
+import java.awt.*;
+import java.awt.event.KeyEvent;
+import java.awt.image.BufferedImage;
+import java.util.EnumSet;
+
+/**
+ * Runs a GameManager without a display, in place of GameGUIComponent (and of GameManager.run).
+ * Every call to {@link #step()} runs a single frame: an update with a fixed deltaTime
+ * (multiplied by the time-scale), then, if requested, rendering to an offscreen image.
+ * Frames run back to back, never sleeping, so a run is reproducible and as fast as the game allows.
+ * <br>Input is scripted through {@link #inputListener()}, sounds are silent, and messages
+ * that would open a message box are printed instead. Images are still read from disk.
+ */
+public class HeadlessRunner implements WindowController {
+    private final GameManager gameManager;
+    private final Vector2 windowDimensions;
+    private final float deltaTime;
+    private final BufferedImage renderTarget;
+    private final MessageHandler messageHandler = new HeadlessMessageHandler(this);
+    private final ScriptedUserInputListener inputListener =
+            new ScriptedUserInputListener(messageHandler);
+    private float timescale = 1;
+    private boolean isInitialized = false;
+    private boolean isClosed = false;
+    private boolean isPaused = false;
+    private int exitButton = KeyEvent.VK_ESCAPE;
+    private int pauseButton = -1;
+    private long frameCount = 0;
+    private Renderable renderableCursor;
+    private Vector2 cursorDimensions = Vector2.ZERO;
+
+    /**
+     * Prints what a GameGUIComponent would show in a message box, and never asks.
+     */
+    private static class HeadlessMessageHandler extends MessageHandler {
+        HeadlessMessageHandler(WindowController windowController) {
+            super(windowController);
+        }
+
+        @Override
+        public void showMessage(String msg, EnumSet<OutputMode> outputModes) {
+            if(outputModes.contains(OutputMode.MSG_BOX)) {
+                outputModes = EnumSet.copyOf(outputModes);
+                outputModes.remove(OutputMode.MSG_BOX);
+                outputModes.add(OutputMode.STANDARD_ERROR);
+            }
+            super.showMessage(msg, outputModes);
+        }
+
+        @Override
+        public boolean openYesNoDialog(String msg) {
+            System.err.println(msg + " (answered no: running headless)");
+            return false;
+        }
+    }
+
+    /**
+     * Creates a runner. The game is initialized by the first call to {@link #step()}.
+     * @param gameManager the game to run.
+     * @param windowDimensions the dimensions the game sees as its window's, in pixels.
+     * @param deltaTime the deltaTime of every frame, in seconds, before applying the time-scale.
+     * @param renderOffscreen should frames be rendered to {@link #renderTarget()}. If false,
+     *                        the game's render method is never called.
+     */
+    public HeadlessRunner(GameManager gameManager, Vector2 windowDimensions,
+                          float deltaTime, boolean renderOffscreen) {
+        if(gameManager == null || windowDimensions == null)
+            throw new NullPointerException("Invalid parameters for HeadlessRunner");
+        this.gameManager = gameManager;
+        this.windowDimensions = windowDimensions;
+        this.deltaTime = deltaTime;
+        renderTarget = renderOffscreen ?
+                new BufferedImage((int)windowDimensions.x(), (int)windowDimensions.y(),
+                        BufferedImage.TYPE_INT_RGB) :
+                null;
+    }
+
+    /**
+     * Runs a single frame, initializing the game first if this is the first frame or if
+     * the game was reset.
+     * @throws IllegalStateException if the game was closed
+     */
+    public void step() {
+        if(isClosed)
+            throw new IllegalStateException("The game was closed");
+        if(!isInitialized) {
+            timescale = 1;
+            gameManager.initializeGame(
+                    new ImageReader(messages()),
+                    new SilentSoundReader(messages()), inputListener,
+                    this);
+            isInitialized = true;
+        }
+        if(inputListener.wasKeyReleasedThisFrame(exitButton))
+            closeWindow();
+        if(inputListener.wasKeyReleasedThisFrame(pauseButton))
+            isPaused = !isPaused;
+        if(!isPaused && !isClosed)
+            gameManager.tick(deltaTime * timescale);
+        inputListener.update(deltaTime);
+        if(renderTarget != null && !isClosed && isInitialized)
+            render();
+        frameCount++;
+    }
+
+    /**
+     * Runs frames until the given number of frames ran or the game was closed.
+     * @return the number of frames that ran
+     */
+    public int run(int frames) {
+        int ran = 0;
+        while(ran < frames && !isClosed) {
+            step();
+            ran++;
+        }
+        return ran;
+    }
+
+    /**
+     * The input of the game, which the program controls.
+     */
+    public ScriptedUserInputListener inputListener() {
+        return inputListener;
+    }
+
+    /**
+     * The image frames are rendered to, or null if frames are not rendered.
+     * Holds the last rendered frame.
+     */
+    public BufferedImage renderTarget() {
+        return renderTarget;
+    }
+
+    /** The number of frames that ran so far */
+    public long frameCount() {
+        return frameCount;
+    }
+
+    /** Was the game closed, see {@link #closeWindow()} */
+    public boolean isClosed() {
+        return isClosed;
+    }
+
+    /**
+     * Stops the game: later calls to {@link #step()} throw.
+     * Unlike GameGUIComponent, does not exit the program.
+     */
+    @Override
+    public void closeWindow() {
+        isClosed = true;
+        gameManager.endGame();
+    }
+
+    /**
+     * The game is initialized again in the next frame.
+     */
+    @Override
+    public void resetGame() {
+        isInitialized = false;
+    }
+
+    @Override
+    public MessageHandler messages() {
+        return messageHandler;
+    }
+
+    @Override
+    public boolean openYesNoDialog(String msg) {
+        return messages().openYesNoDialog(msg);
+    }
+
+    @Override
+    public double getTimeScale() { return timescale; }
+
+    @Override
+    public void setTimeScale(float value) { timescale = value; }
+
+    @Override
+    public Vector2 getWindowDimensions() {
+        return windowDimensions;
+    }
+
+    /**
+     * Has no effect: frames never wait.
+     */
+    @Override
+    public void setTargetFramerate(int targetFramerate) { }
+
+    @Override
+    public void setPauseButton(int keyFromKeyEvent) {
+        pauseButton = keyFromKeyEvent;
+    }
+
+    @Override
+    public void setExitButton(int keyFromKeyEvent) {
+        exitButton = keyFromKeyEvent;
+    }
+
+    @Override
+    public void setMouseCursor(Renderable renderable, Vector2 dimensions, Vector2 offset) {
+        renderableCursor = renderable;
+        cursorDimensions = dimensions;
+    }
+
+    @Override
+    public Renderable getMouseCursor() {
+        return renderableCursor;
+    }
+
+    @Override
+    public Vector2 getMouseCursorDimensions() {
+        return cursorDimensions;
+    }
+
+    private void render() {
+        Graphics2D g2d = renderTarget.createGraphics();
+        g2d.setBackground(Color.WHITE);
+        g2d.clearRect(0, 0, renderTarget.getWidth(), renderTarget.getHeight());
+        g2d.setColor(Color.BLACK);
+        g2d.setRenderingHint(
+                RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        gameManager.render(g2d);
+        g2d.dispose();
+    }
+}
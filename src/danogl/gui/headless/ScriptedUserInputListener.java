@@ -0,0 +1,155 @@
+package danogl.gui.headless;
+
+import danogl.components.movement_schemes.movement_directing.KeyboardMovementDirector;
+import danogl.components.movement_schemes.movement_directing.MouseMovementDirector;
+import danogl.gui.MessageHandler;
+import danogl.gui.UserInputListener;
+import danogl.gui.mouse.MouseButton;
+import danogl.gui.rendering.Camera;
+import danogl.util.MutableVector2;
+import danogl.util.Vector2;
+
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * A UserInputListener whose input is set by the program instead of a keyboard and a mouse.
+ * Keys and buttons pressed or released between two frames are reported as pressed or
+ * released in the next frame, exactly like real input.
+ * @see HeadlessRunner#inputListener()
+ */
+public class ScriptedUserInputListener implements UserInputListener {
+    private final Set<Integer> pressedKeys = new HashSet<>();
+    private final Set<Integer> keysDownThisFrame = new HashSet<>();
+    private final Set<Integer> keysUpThisFrame = new HashSet<>();
+    private final EnumSet<MouseButton> pressedMouseButtons = EnumSet.noneOf(MouseButton.class);
+    private final EnumSet<MouseButton> clickedMouseButtons = EnumSet.noneOf(MouseButton.class);
+    private final EnumSet<MouseButton> mouseButtonsDownThisFrame = EnumSet.noneOf(MouseButton.class);
+    private final EnumSet<MouseButton> mouseButtonsUpThisFrame = EnumSet.noneOf(MouseButton.class);
+    private final MutableVector2 mousePos = new MutableVector2();
+    private double mouseWheelClicksThisFrame;
+    private final MessageHandler messages;
+
+    /** Construct a ScriptedUserInputListener with nothing pressed */
+    public ScriptedUserInputListener(MessageHandler messages) {
+        this.messages = messages;
+    }
+
+    /** Presses a key, until {@link #releaseKey(int)}. Has no effect if it is already pressed. */
+    public void pressKey(int keyFromKeyEvent) {
+        if(pressedKeys.add(keyFromKeyEvent))
+            keysDownThisFrame.add(keyFromKeyEvent);
+    }
+
+    /** Releases a key pressed by {@link #pressKey(int)} */
+    public void releaseKey(int keyFromKeyEvent) {
+        if(pressedKeys.remove(keyFromKeyEvent))
+            keysUpThisFrame.add(keyFromKeyEvent);
+    }
+
+    /** Presses a mouse button, until {@link #releaseMouseButton(MouseButton)} */
+    public void pressMouseButton(MouseButton button) {
+        if(pressedMouseButtons.add(button))
+            mouseButtonsDownThisFrame.add(button);
+    }
+
+    /**
+     * Releases a mouse button pressed by {@link #pressMouseButton(MouseButton)},
+     * which counts as a click.
+     */
+    public void releaseMouseButton(MouseButton button) {
+        if(pressedMouseButtons.remove(button)) {
+            mouseButtonsUpThisFrame.add(button);
+            clickedMouseButtons.add(button);
+        }
+    }
+
+    /** Moves the mouse, in screen coordinates */
+    public void setMouseScreenPos(Vector2 pos) {
+        mousePos.setXY(pos.x(), pos.y());
+    }
+
+    /** Rotates the mouse wheel in the next frame */
+    public void rotateMouseWheel(double clicks) {
+        mouseWheelClicksThisFrame += clicks;
+    }
+
+    /**
+     * Ends a frame: keys and buttons pressed or released so far are no longer reported
+     * as pressed or released this frame.
+     */
+    public void update(float deltaTime) {
+        keysDownThisFrame.clear();
+        keysUpThisFrame.clear();
+        mouseButtonsDownThisFrame.clear();
+        mouseButtonsUpThisFrame.clear();
+        clickedMouseButtons.clear();
+        mouseWheelClicksThisFrame = 0;
+    }
+
+    @Override
+    public boolean isKeyPressed(int keyFromKeyEvent) {
+        return pressedKeys.contains(keyFromKeyEvent);
+    }
+
+    @Override
+    public boolean wasKeyPressedThisFrame(int keyFromKeyEvent) {
+        return keysDownThisFrame.contains(keyFromKeyEvent);
+    }
+
+    @Override
+    public boolean wasKeyReleasedThisFrame(int keyFromKeyEvent) {
+        return keysUpThisFrame.contains(keyFromKeyEvent);
+    }
+
+    @Override
+    public boolean wasMouseButtonClickedThisFrame(MouseButton button) {
+        return clickedMouseButtons.contains(button);
+    }
+
+    @Override
+    public boolean wasMouseButtonPressedThisFrame(MouseButton button) {
+        return mouseButtonsDownThisFrame.contains(button);
+    }
+
+    @Override
+    public boolean wasMouseButtonReleasedThisFrame(MouseButton button) {
+        return mouseButtonsUpThisFrame.contains(button);
+    }
+
+    @Override
+    public boolean isMouseButtonPressed(MouseButton button) {
+        return pressedMouseButtons.contains(button);
+    }
+
+    @Override
+    public Vector2 getMouseScreenPos() {
+        return mousePos;
+    }
+
+    @Override
+    public double mouseWheelClicksThisFrame() {
+        return mouseWheelClicksThisFrame;
+    }
+
+    @Override
+    public Set<Integer> pressedKeys() {
+        return pressedKeys;
+    }
+
+    @Override
+    public Set<MouseButton> pressedMouseButtons() {
+        return pressedMouseButtons;
+    }
+
+    @Override
+    public MouseMovementDirector mouseMovementDirector(Camera camera) {
+        return new MouseMovementDirector(messages, this, camera);
+    }
+
+    @Override
+    public KeyboardMovementDirector keyboardMovementDirector() {
+        return new KeyboardMovementDirector(messages, this);
+    }
+}
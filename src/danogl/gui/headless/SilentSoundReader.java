@@ -0,0 +1,25 @@
+package danogl.gui.headless;
+
+import danogl.gui.MessageHandler;
+import danogl.gui.Sound;
+import danogl.gui.SoundReader;
+
+/**
+ * A SoundReader that reads nothing: every sound is {@link Sound#EMPTY_SOUND}.
+ * Machines without audio devices cannot open clips, and headless runs have nobody to listen.
+ */
+public class SilentSoundReader extends SoundReader {
+    /** Construct a SilentSoundReader */
+    public SilentSoundReader(MessageHandler messages) {
+        super(messages);
+    }
+
+    /**
+     * Reads nothing.
+     * @return {@link Sound#EMPTY_SOUND}
+     */
+    @Override
+    public Sound readSound(String wavFilePath) {
+        return Sound.EMPTY_SOUND;
+    }
+}
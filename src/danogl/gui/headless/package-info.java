@@ -0,0 +1,6 @@
+/**
+ * Running a GameManager without a display: a game loop with a fixed deltaTime,
+ * scripted input, silent sound and an optional offscreen render target.
+ * Used for simulations and benchmarks.
+ */
+package danogl.gui.headless;
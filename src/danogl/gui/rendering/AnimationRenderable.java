@@ -156,6 +156,13 @@ public class AnimationRenderable implements Renderable {
                 isFlippedHorizontally, isFlippedVertically, opaqueness);
     }
 
+    @Override
+    public Renderable snapshot() {
+        if(currImIndex >= clips.length)
+            return null;
+        return clips[currImIndex].snapshot();
+    }
+
     /**Reset the animation (go back to the first frame).*/
     public void resetAnimation() {
         currImIndex = 0;
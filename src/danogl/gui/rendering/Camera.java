@@ -112,14 +112,16 @@ public class Camera extends GameObject {
 
     /**
      * Converts world coordinates to screen coordinates (in pixels, relative
-     * to the window's top left corner)
+     * to the window's top left corner). While rendering between fixed timesteps,
+     * the camera's interpolated position is used, see {@link danogl.GameManager#setFixedTimestep}.
      */
     public Vector2 worldToScreenCoords(Vector2 worldCoords) {
         float dimFactorX = windowDimensions().x()/getDimensions().x();
         float dimFactorY = windowDimensions().y()/getDimensions().y();
+        var topLeftCorner = transform().getRenderedTopLeftCorner();
         freeCalculationsVector.setXY(
-                dimFactorX*(worldCoords.x()-getTopLeftCorner().x()),
-                dimFactorY*(worldCoords.y()-getTopLeftCorner().y()));
+                dimFactorX*(worldCoords.x()-topLeftCorner.x()),
+                dimFactorY*(worldCoords.y()-topLeftCorner.y()));
         return freeCalculationsVector;
     }
 }
@@ -0,0 +1,219 @@
+package danogl.gui.rendering;
+
+import danogl.GameObject;
+import danogl.collisions.GameObjectCollection;
+import danogl.collisions.LayerListener;
+import danogl.collisions.SpatialGrid;
+import danogl.components.CoordinateSpace;
+import danogl.util.LongHashMap;
+import danogl.util.Vector2;
+
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.IntConsumer;
+
+/**
+ * Renders only the GameObjects that might be visible: those whose bounds intersect
+ * the camera's view. The objects of every layer are kept in a {@link SpatialGrid},
+ * so finding the visible objects costs in proportion to their number rather than to the
+ * size of the world. Keeping the grid up to date costs in proportion to the number of
+ * objects in motion, since objects at rest are not re-examined until they wake up (see
+ * {@link danogl.components.GameObjectPhysics#bodyType()}).
+ * Objects in camera coordinates are always rendered.
+ * The objects of a layer are rendered in the same order as without culling.
+ * <br>The culler mirrors the layers of a {@link GameObjectCollection}, to which it should
+ * be added using {@link GameObjectCollection#addLayerListener}. GameManager does this
+ * automatically, see {@link danogl.GameManager#frustumCuller()}.
+ */
+public class FrustumCuller implements LayerListener {
+    /** The cell size used by the single-parameter constructor */
+    public static final float DEFAULT_CELL_SIZE = 256;
+
+    private static class LayerIndex {
+        final SpatialGrid grid;
+        final List<GameObject> cameraObjects = new ArrayList<>();
+        final Comparator<GameObject> drawOrder;
+
+        LayerIndex(float cellSize) {
+            grid = new SpatialGrid(cellSize, SpatialGrid.Bounds.RENDERED);
+            drawOrder = Comparator.comparingInt(grid::sequenceOf);
+        }
+    }
+
+    private final float cellSize;
+    private final Vector2 windowDimensions;
+    private final LongHashMap<LayerIndex> indexOfLayer = new LongHashMap<>();
+    private boolean isEnabled = true;
+    private int drawnCount = 0, culledCount = 0;
+
+    //state of the rendering currently in progress, used by renderLayer
+    private final IntConsumer renderLayer = this::renderLayer;
+    private final List<GameObject> visible = new ArrayList<>();
+    private Graphics2D g;
+    private RenderSnapshot.Builder builder;
+    private Camera camera;
+    private float alpha;
+    private float viewMinX, viewMinY, viewMaxX, viewMaxY;
+
+    /**
+     * Creates a culler with cells of {@link #DEFAULT_CELL_SIZE}.
+     * @param windowDimensions the dimensions of the window, which is the view when
+     *                         there is no camera.
+     */
+    public FrustumCuller(Vector2 windowDimensions) {
+        this(windowDimensions, DEFAULT_CELL_SIZE);
+    }
+
+    /**
+     * Creates a culler.
+     * @param windowDimensions the dimensions of the window, which is the view when
+     *                         there is no camera.
+     * @param cellSize the edge of a single grid cell, in world units.
+     */
+    public FrustumCuller(Vector2 windowDimensions, float cellSize) {
+        this.windowDimensions = windowDimensions;
+        this.cellSize = cellSize;
+    }
+
+    /**
+     * Is culling enabled. If not, GameManager renders every object.
+     */
+    public boolean isEnabled() { return isEnabled; }
+
+    /**
+     * Enables or disables culling.
+     */
+    public void setEnabled(boolean isEnabled) { this.isEnabled = isEnabled; }
+
+    /** The number of objects rendered in the last call to render */
+    public int drawnCount() { return drawnCount; }
+
+    /** The number of objects skipped in the last call to render */
+    public int culledCount() { return culledCount; }
+
+    @Override
+    public void objectAdded(GameObject obj, int layerId) {
+        var index = indexOfLayer.get(layerId);
+        if(index == null) {
+            index = new LayerIndex(cellSize);
+            indexOfLayer.put(layerId, index);
+        }
+        index.grid.insert(obj);
+        if(obj.getCoordinateSpace() == CoordinateSpace.CAMERA_COORDINATES)
+            index.cameraObjects.add(obj);
+    }
+
+    @Override
+    public void objectRemoved(GameObject obj, int layerId) {
+        var index = indexOfLayer.get(layerId);
+        if(index == null)
+            return;
+        index.grid.remove(obj);
+        index.cameraObjects.remove(obj);
+    }
+
+    /**
+     * Renders the objects of the given collection that intersect the camera's view,
+     * layer by layer in draw-order.
+     * Objects are considered to be in camera coordinates if they were when added.
+     * @param g The graphics object passed to GameManager.render.
+     * @param camera The active camera, or null if there is none.
+     * @param gameObjects The collection whose objects are rendered. The culler must have been
+     *                    added to it as a listener.
+     */
+    public void render(Graphics2D g, Camera camera, GameObjectCollection gameObjects) {
+        render(g, camera, gameObjects, 1);
+    }
+
+    /**
+     * Like {@link #render(Graphics2D, Camera, GameObjectCollection)}, but renders every drawn
+     * object between its previous and current states, see
+     * {@link danogl.components.Transform#beginInterpolatedRendering(float)}. Culled objects are
+     * not interpolated, and neither is the camera, which the caller should interpolate.
+     * @param alpha in [0,1], where 0 is the previous state and 1 is the current state,
+     *              which is rendered without interpolating.
+     */
+    public void render(Graphics2D g, Camera camera, GameObjectCollection gameObjects, float alpha) {
+        this.g = g;
+        renderVisible(camera, gameObjects, alpha);
+        this.g = null;
+    }
+
+    /**
+     * Like {@link #render(Graphics2D, Camera, GameObjectCollection)}, but appends the
+     * visible objects to a render snapshot instead of drawing them.
+     * @param builder the snapshot being captured
+     * @param camera The active camera, or null if there is none.
+     * @param gameObjects The collection whose objects are captured. The culler must have been
+     *                    added to it as a listener.
+     */
+    public void capture(RenderSnapshot.Builder builder, Camera camera, GameObjectCollection gameObjects) {
+        capture(builder, camera, gameObjects, 1);
+    }
+
+    /**
+     * Like {@link #render(Graphics2D, Camera, GameObjectCollection, float)}, but appends the
+     * visible objects to a render snapshot instead of drawing them.
+     */
+    public void capture(RenderSnapshot.Builder builder, Camera camera, GameObjectCollection gameObjects,
+                        float alpha) {
+        this.builder = builder;
+        renderVisible(camera, gameObjects, alpha);
+        this.builder = null;
+    }
+
+    private void renderVisible(Camera camera, GameObjectCollection gameObjects, float alpha) {
+        if(camera != null) {
+            var topLeft = camera.getTopLeftCorner();
+            var dimensions = camera.getDimensions();
+            viewMinX = topLeft.x();
+            viewMinY = topLeft.y();
+            viewMaxX = viewMinX + dimensions.x();
+            viewMaxY = viewMinY + dimensions.y();
+        }
+        else {
+            viewMinX = viewMinY = 0;
+            viewMaxX = windowDimensions.x();
+            viewMaxY = windowDimensions.y();
+        }
+        this.camera = camera;
+        this.alpha = alpha;
+        drawnCount = culledCount = 0;
+        gameObjects.layers().forEachLayerInDrawOrder(renderLayer);
+        this.camera = null;
+    }
+
+    private void renderLayer(int layerId) {
+        var index = indexOfLayer.get(layerId);
+        if(index == null)
+            return;
+        index.grid.refresh();
+        visible.clear();
+        index.grid.query(viewMinX, viewMinY, viewMaxX, viewMaxY, visible);
+        //objects in camera coordinates were not necessarily found, and are always visible
+        visible.removeIf(obj -> obj.getCoordinateSpace() == CoordinateSpace.CAMERA_COORDINATES);
+        visible.addAll(index.cameraObjects);
+        visible.sort(index.drawOrder);
+        for(int i = 0 ; i < visible.size() ; i++) {
+            var obj = visible.get(i);
+            boolean interpolate = alpha < 1 && obj != camera;
+            if(interpolate)
+                obj.transform().beginInterpolatedRendering(alpha);
+            try {
+                if(builder != null)
+                    obj.capture(builder, camera);
+                else
+                    obj.render(g, camera);
+            }
+            finally {
+                if(interpolate)
+                    obj.transform().endInterpolatedRendering();
+            }
+        }
+        drawnCount += visible.size();
+        culledCount += index.grid.size() - visible.size();
+        visible.clear();
+    }
+}
@@ -0,0 +1,136 @@
+package danogl.gui.rendering;
+
+import danogl.util.MutableVector2;
+import danogl.util.Vector2;
+
+import java.awt.*;
+import java.util.Arrays;
+
+/**
+ * An immutable list of draw commands: everything a frame renders, in order, with the screen
+ * position, dimensions, angle, flips and opaqueness of each Renderable frozen at capture time.
+ * A snapshot is captured on the game thread (see
+ * {@link danogl.GameManager#captureRenderSnapshot(Builder)}) and can then be drawn on
+ * another thread while the game goes on updating.
+ * <br>Each command holds the {@link Renderable#snapshot()} of its renderable, taken at capture:
+ * a {@link TextRenderable} is copied with its string, color and metrics, an
+ * {@link AnimationRenderable} is replaced by its current clip and a {@link SwitchRenderable} by
+ * the renderable its conditions select. Custom renderables whose state changes as the game
+ * updates should override snapshot likewise.
+ */
+public final class RenderSnapshot {
+    private static final byte FLIPPED_HORIZONTALLY = 1, FLIPPED_VERTICALLY = 2;
+
+    private final Renderable[] renderables;
+    private final float[] x, y, width, height, degreesCounterClockwise, opaqueness;
+    private final byte[] flips;
+    private final int size;
+    //for the renderables, which receive vectors
+    private final MutableVector2 topLeftCorner = new MutableVector2(), dimensions = new MutableVector2();
+
+    /**
+     * Accumulates draw commands into a snapshot. A builder can be reused for every frame.
+     */
+    public static final class Builder {
+        private static final int INITIAL_CAPACITY = 256;
+
+        private Renderable[] renderables = new Renderable[INITIAL_CAPACITY];
+        private float[] x = new float[INITIAL_CAPACITY], y = new float[INITIAL_CAPACITY],
+                width = new float[INITIAL_CAPACITY], height = new float[INITIAL_CAPACITY],
+                degreesCounterClockwise = new float[INITIAL_CAPACITY],
+                opaqueness = new float[INITIAL_CAPACITY];
+        private byte[] flips = new byte[INITIAL_CAPACITY];
+        private int size = 0;
+
+        /**
+         * Appends a draw command, with the parameters of
+         * {@link Renderable#render(Graphics2D, Vector2, Vector2, double, boolean, boolean, double)}.
+         * The vectors are copied, so they may be reused by the caller, and the renderable is
+         * replaced by its {@link Renderable#snapshot()}.
+         */
+        public void add(Renderable renderable, Vector2 topLeftCorner, Vector2 dimensions,
+                        double degreesCounterClockwise,
+                        boolean isFlippedHorizontally, boolean isFlippedVertically,
+                        double opaqueness) {
+            if(renderable == null)
+                return;
+            renderable = renderable.snapshot();
+            if(renderable == null)
+                return;
+            if(size == renderables.length)
+                grow();
+            renderables[size] = renderable;
+            x[size] = topLeftCorner.x();
+            y[size] = topLeftCorner.y();
+            width[size] = dimensions.x();
+            height[size] = dimensions.y();
+            this.degreesCounterClockwise[size] = (float)degreesCounterClockwise;
+            this.opaqueness[size] = (float)opaqueness;
+            flips[size] = (byte)((isFlippedHorizontally ? FLIPPED_HORIZONTALLY : 0) |
+                    (isFlippedVertically ? FLIPPED_VERTICALLY : 0));
+            size++;
+        }
+
+        /**
+         * An overload of {@link #add(Renderable, Vector2, Vector2, double, boolean, boolean, double)}
+         * for an unrotated, unflipped and opaque renderable.
+         */
+        public void add(Renderable renderable, Vector2 topLeftCorner, Vector2 dimensions) {
+            add(renderable, topLeftCorner, dimensions, 0, false, false, 1);
+        }
+
+        /** The number of draw commands added since the last build */
+        public int size() { return size; }
+
+        /**
+         * Creates a snapshot of the commands added so far, and empties the builder.
+         */
+        public RenderSnapshot build() {
+            var snapshot = new RenderSnapshot(this);
+            Arrays.fill(renderables, 0, size, null);
+            size = 0;
+            return snapshot;
+        }
+
+        private void grow() {
+            int capacity = renderables.length * 2;
+            renderables = Arrays.copyOf(renderables, capacity);
+            x = Arrays.copyOf(x, capacity);
+            y = Arrays.copyOf(y, capacity);
+            width = Arrays.copyOf(width, capacity);
+            height = Arrays.copyOf(height, capacity);
+            degreesCounterClockwise = Arrays.copyOf(degreesCounterClockwise, capacity);
+            opaqueness = Arrays.copyOf(opaqueness, capacity);
+            flips = Arrays.copyOf(flips, capacity);
+        }
+    }
+
+    private RenderSnapshot(Builder builder) {
+        size = builder.size;
+        renderables = Arrays.copyOf(builder.renderables, size);
+        x = Arrays.copyOf(builder.x, size);
+        y = Arrays.copyOf(builder.y, size);
+        width = Arrays.copyOf(builder.width, size);
+        height = Arrays.copyOf(builder.height, size);
+        degreesCounterClockwise = Arrays.copyOf(builder.degreesCounterClockwise, size);
+        opaqueness = Arrays.copyOf(builder.opaqueness, size);
+        flips = Arrays.copyOf(builder.flips, size);
+    }
+
+    /** The number of draw commands */
+    public int size() { return size; }
+
+    /**
+     * Draws all commands in order. A snapshot should be drawn by a single thread at a time.
+     * @param g the graphics object to draw with
+     */
+    public void render(Graphics2D g) {
+        for(int i = 0 ; i < size ; i++) {
+            topLeftCorner.setXY(x[i], y[i]);
+            dimensions.setXY(width[i], height[i]);
+            renderables[i].render(g, topLeftCorner, dimensions, degreesCounterClockwise[i],
+                    (flips[i] & FLIPPED_HORIZONTALLY) != 0, (flips[i] & FLIPPED_VERTICALLY) != 0,
+                    opaqueness[i]);
+        }
+    }
+}
@@ -17,6 +17,15 @@ public interface Renderable {
      */
     default void update(double deltaTime) {}
 
+    /**
+     * Returns a Renderable that draws what this one would draw now, and that can be drawn
+     * on another thread while this one goes on being updated. Called on the game thread
+     * when a render snapshot is captured (see {@link RenderSnapshot}).
+     * Renderables whose appearance never changes may return themselves, which is the default.
+     * @return the renderable to draw in place of this one, or null to draw nothing.
+     */
+    default Renderable snapshot() { return this; }
+
     /**
      * Renders the object.
      * @param g The graphics object.
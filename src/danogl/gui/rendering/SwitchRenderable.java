@@ -61,4 +61,10 @@ public class SwitchRenderable implements Renderable {
         renderable.render(g, topLeftCorner, dimensions, degreesCounterClockwise,
                 isFlippedHorizontally, isFlippedVertically, opaqueness);
     }
+
+    @Override
+    public Renderable snapshot() {
+        switchComponent.update(0); //the conditions are evaluated on the game thread
+        return renderable == null ? null : renderable.snapshot();
+    }
 }
@@ -24,6 +24,8 @@ public class TextRenderable implements Renderable {
     private static final String LINE_BREAK = "\n";
     private static final String DEFAULT_FONT = Font.SANS_SERIF;
     private static final float FONT_PTS_PER_INCH = 2*72f;
+    //without a display there is no screen to ask, see danogl.gui.headless
+    private static final int HEADLESS_SCREEN_RESOLUTION = 96;
 
     private ConfigureGraphics configureGraphics = new ConfigureGraphics();
     private String str;
@@ -54,6 +56,18 @@ public class TextRenderable implements Renderable {
         this.str = str;
     }
 
+    //a copy of the current text and metrics, for snapshot
+    private TextRenderable(TextRenderable other) {
+        str = other.str;
+        lines = other.lines;
+        multilineHandling = other.multilineHandling;
+        gapBetweenLinesInPixels = other.gapBetweenLinesInPixels;
+        linePixelHeight = other.linePixelHeight;
+        lastRenderHeight = other.lastRenderHeight;
+        font = other.font;
+        textColor = other.textColor;
+    }
+
     /** Returns the rendered string */
     public String renderedString() {
         return String.join(LINE_BREAK, lines);
@@ -115,6 +129,15 @@ public class TextRenderable implements Renderable {
         configureGraphics.rollbackChanges();
     }
 
+    /**
+     * Returns a copy of this TextRenderable, which setString, setColor and rendering
+     * in other dimensions leave unchanged.
+     */
+    @Override
+    public Renderable snapshot() {
+        return new TextRenderable(this);
+    }
+
     private void resetDrawSettings() {
         this.lines = str.split(LINE_BREAK);
         switch(multilineHandling) {
@@ -128,6 +151,12 @@ public class TextRenderable implements Renderable {
         }
         font = new Font(font.getFontName(), font.getStyle(),
                 (int)(FONT_PTS_PER_INCH *
-                        (float)linePixelHeight/Toolkit.getDefaultToolkit().getScreenResolution()));
+                        (float)linePixelHeight/screenResolution()));
+    }
+
+    private static int screenResolution() {
+        if(GraphicsEnvironment.isHeadless())
+            return HEADLESS_SCREEN_RESOLUTION;
+        return Toolkit.getDefaultToolkit().getScreenResolution();
     }
 }
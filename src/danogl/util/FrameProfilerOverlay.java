@@ -0,0 +1,65 @@
+package danogl.util;
+
+import danogl.FrameProfiler;
+import danogl.GameObject;
+import danogl.components.CoordinateSpace;
+import danogl.components.ScheduledTask;
+import danogl.gui.rendering.TextRenderable;
+
+import java.awt.*;
+import java.util.Locale;
+
+/**
+ * A factory for a GameObject that displays the percentiles of every phase of the frame,
+ * as timed by a {@link FrameProfiler}.
+ */
+public class FrameProfilerOverlay {
+    private static final float TIME_BETWEEN_REFRESHES = 0.5f;
+    private static final int GAP_BETWEEN_LINES = 4;
+    private static final double NANOS_PER_MILLI = 1e6;
+
+    /**
+     * Create a GameObject that displays, for every phase of the frame and for the whole frame,
+     * its median, 95th and 99th percentile times in milliseconds. Like any GameObject, this object
+     * needs to be added to a GameObjectCollection in order to work, preferably in a layer
+     * rendered on top, such as Layer.UI.
+     * @param profiler The profiler to display, usually that of the GameManager.
+     * @param topLeftCorner The upper-left corner of the overlay.
+     * @param lineHeight Height, in pixels, of every line. This determines the font-size.
+     * @param color The color of the text.
+     * @return the overlay
+     */
+    public static GameObject create(FrameProfiler profiler, Vector2 topLeftCorner,
+                                    int lineHeight, Color color) {
+        //with a height for a single line, the text spans further lines below the object
+        GameObject overlay = new GameObject(topLeftCorner, Vector2.DOWN.mult(lineHeight), null);
+        TextRenderable text = new TextRenderable("", Font.MONOSPACED);
+        text.setColor(color);
+        new ScheduledTask(
+                overlay, TIME_BETWEEN_REFRESHES, true,
+                () -> text.setString(describe(profiler),
+                        TextRenderable.MultilineHandling.HEIGHT_IS_FOR_SINGLE_LINE, GAP_BETWEEN_LINES));
+        overlay.renderer().setRenderable(text);
+        overlay.setCoordinateSpace(CoordinateSpace.CAMERA_COORDINATES);
+        return overlay;
+    }
+
+    private static String describe(FrameProfiler profiler) {
+        var description = new StringBuilder(String.format(Locale.ROOT,
+                "%-15s %6s %6s %6s  (ms, %d frames)", "phase", "p50", "p95", "p99",
+                profiler.sampleCount()));
+        for(var phase : FrameProfiler.Phase.values()) {
+            description.append('\n').append(String.format(Locale.ROOT, "%-15s %6.2f %6.2f %6.2f",
+                    phase.name().toLowerCase(Locale.ROOT),
+                    profiler.percentile(phase, 50) / NANOS_PER_MILLI,
+                    profiler.percentile(phase, 95) / NANOS_PER_MILLI,
+                    profiler.percentile(phase, 99) / NANOS_PER_MILLI));
+        }
+        description.append('\n').append(String.format(Locale.ROOT, "%-15s %6.2f %6.2f %6.2f",
+                "frame",
+                profiler.frameTimePercentile(50) / NANOS_PER_MILLI,
+                profiler.frameTimePercentile(95) / NANOS_PER_MILLI,
+                profiler.frameTimePercentile(99) / NANOS_PER_MILLI));
+        return description.toString();
+    }
+}
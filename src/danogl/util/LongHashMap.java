@@ -0,0 +1,142 @@
+package danogl.util;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * A hash map from primitive longs to objects, using open addressing (linear probing).
+ * As opposed to a HashMap&lt;Long, V&gt;, lookups and insertions of existing keys
+ * do not box the key, and therefore do not allocate.
+ * Null values are not supported: a null value represents a missing key.
+ * @param <V> The value type
+ */
+public class LongHashMap<V> {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private long[] keys;
+    private Object[] values;
+    private int size = 0;
+    private int mask;
+
+    /** Creates an empty map */
+    public LongHashMap() {
+        keys = new long[INITIAL_CAPACITY];
+        values = new Object[INITIAL_CAPACITY];
+        mask = INITIAL_CAPACITY - 1;
+    }
+
+    /**
+     * Returns the value mapped to the given key, or null if there is none.
+     */
+    @SuppressWarnings("unchecked")
+    public V get(long key) {
+        for(int i = slotOf(key) ; values[i] != null ; i = (i + 1) & mask) {
+            if(keys[i] == key)
+                return (V) values[i];
+        }
+        return null;
+    }
+
+    /**
+     * Maps the key to the given value.
+     * @param value the new value, cannot be null.
+     * @return the previous value mapped to the key, or null if there was none.
+     */
+    @SuppressWarnings("unchecked")
+    public V put(long key, V value) {
+        if(value == null)
+            throw new NullPointerException("LongHashMap does not support null values");
+        int i = slotOf(key);
+        for(; values[i] != null ; i = (i + 1) & mask) {
+            if(keys[i] == key) {
+                V oldValue = (V) values[i];
+                values[i] = value;
+                return oldValue;
+            }
+        }
+        keys[i] = key;
+        values[i] = value;
+        if(++size * 2 > values.length)
+            resize(values.length * 2);
+        return null;
+    }
+
+    /**
+     * Removes the mapping of the given key.
+     * @return the value that was mapped to the key, or null if there was none.
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(long key) {
+        int i = slotOf(key);
+        for(; values[i] != null ; i = (i + 1) & mask) {
+            if(keys[i] == key)
+                break;
+        }
+        if(values[i] == null)
+            return null;
+        V oldValue = (V) values[i];
+        values[i] = null;
+        size--;
+        //shift back the following entries of the cluster so that lookups don't stop at the hole
+        int hole = i;
+        for(i = (i + 1) & mask ; values[i] != null ; i = (i + 1) & mask) {
+            int desiredSlot = slotOf(keys[i]);
+            boolean isDesiredSlotCyclicallyAfterHole =
+                    hole <= i ? (hole < desiredSlot && desiredSlot <= i)
+                              : (hole < desiredSlot || desiredSlot <= i);
+            if(isDesiredSlotCyclicallyAfterHole)
+                continue;
+            keys[hole] = keys[i];
+            values[hole] = values[i];
+            values[i] = null;
+            hole = i;
+        }
+        return oldValue;
+    }
+
+    /** Is the given key mapped to a value */
+    public boolean containsKey(long key) { return get(key) != null; }
+
+    /** The number of mappings in the map */
+    public int size() { return size; }
+
+    /**
+     * Performs the action for every value in the map, in no particular order.
+     * The map must not be modified by the action.
+     */
+    @SuppressWarnings("unchecked")
+    public void forEachValue(Consumer<? super V> action) {
+        for(int i = 0 ; i < values.length ; i++) {
+            if(values[i] != null)
+                action.accept((V) values[i]);
+        }
+    }
+
+    /** Removes all mappings */
+    public void clear() {
+        Arrays.fill(values, null);
+        size = 0;
+    }
+
+    private int slotOf(long key) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int)(hash ^ (hash >>> 32)) & mask;
+    }
+
+    private void resize(int newCapacity) {
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+        keys = new long[newCapacity];
+        values = new Object[newCapacity];
+        mask = newCapacity - 1;
+        for(int j = 0 ; j < oldValues.length ; j++) {
+            if(oldValues[j] == null)
+                continue;
+            int i = slotOf(oldKeys[j]);
+            while(values[i] != null)
+                i = (i + 1) & mask;
+            keys[i] = oldKeys[j];
+            values[i] = oldValues[j];
+        }
+    }
+}
@@ -1,14 +1,16 @@
 package danogl.util;
 
-import java.util.ArrayList;
-import java.util.Iterator;
-import java.util.List;
-import java.util.Spliterator;
+import java.util.*;
+import java.util.function.Consumer;
 import java.util.function.Predicate;
 
 /**
  * Represents a list that can be modified while iterated,
  * as opposed to Java's builtin lists
+ * <br>Elements are kept in a dense array, in the order they were added, and indexed by a
+ * hash table, so adding, removing and finding an element take constant time, and applying
+ * the changes of a frame takes time in proportion to their number plus, if anything was
+ * removed, to the part of the list after the first removed element.
  * @param <E> The element type
  * @author Dan Nirel
  */
@@ -36,7 +38,7 @@ public class ModifiableList<E> implements Iterable<E> {
         @Override
         public E next() {
             iteratingNow = true;
-            var element = list.get(index);
+            var element = get(index);
             index += indexStep;
             if(!hasNext())
                 iteratingNow = false;
@@ -46,17 +48,35 @@ public class ModifiableList<E> implements Iterable<E> {
     private class Reverse implements Iterable<E> {
         @Override
         public Iterator<E> iterator() {
-            if(iterator.tryReset(list.size()-1, -1, -1))
+            if(iterator.tryReset(size-1, -1, -1))
                 return iterator;
             var newIt = new MyIterator();
-            newIt.tryReset(list.size()-1, -1, -1);
+            newIt.tryReset(size-1, -1, -1);
             return newIt;
         }
     }
 
-    private List<E> list = new ArrayList<>();
-    private List<E> toAdd = new ArrayList<>();
-    private List<E> toRemove = new ArrayList<>();
+    //the state of all elements equal to some element
+    private static class Entry {
+        int index = -1; //position in the list, if there and duplicates are not allowed
+        int inList;
+        int pendingAdds;
+        int cancelledAdds; //the first cancelledAdds occurrences in toAdd are skipped when flushing
+        boolean isPendingRemoval;
+
+        boolean isEmpty() {
+            return inList == 0 && pendingAdds == 0 && cancelledAdds == 0;
+        }
+    }
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private Object[] elements = new Object[INITIAL_CAPACITY];
+    private Entry[] entryAt = new Entry[INITIAL_CAPACITY];
+    private int size = 0;
+    private final Map<E, Entry> entries = new HashMap<>();
+    private final List<E> toAdd = new ArrayList<>();
+    private final List<E> toRemove = new ArrayList<>();
     private MyIterator iterator = new MyIterator();
     private Reverse reverseIterable;
     private boolean allowDuplicates;
@@ -78,12 +98,45 @@ public class ModifiableList<E> implements Iterable<E> {
      * if the list does not allow duplicates and the element was already added.
      */
     public boolean add(E item) {
-        if(!allowDuplicates && (toAdd.contains(item) || list.contains(item)))
+        var entry = entries.get(item);
+        if(entry == null) {
+            entry = new Entry();
+            entries.put(item, entry);
+        }
+        else if(!allowDuplicates && (entry.pendingAdds > 0 || entry.inList > 0))
             return false;
+        entry.pendingAdds++;
         toAdd.add(item);
         return true;
     }
 
+    /**
+     * Adds all the given elements, in order, as if by calling {@link #add(Object)} for each.
+     * @param items the elements to add.
+     * @param areKnownAbsent true if the caller guarantees that no element is already in the list
+     *                       or waiting to be added, and that no element appears twice, in which
+     *                       case the checks for duplicates are skipped. If the guarantee does not
+     *                       hold, the list is left in an undefined state.
+     * @return the number of elements that were added.
+     */
+    public int addAll(Collection<? extends E> items, boolean areKnownAbsent) {
+        if(!areKnownAbsent) {
+            int added = 0;
+            for(E item : items) {
+                if(add(item))
+                    added++;
+            }
+            return added;
+        }
+        for(E item : items) {
+            var entry = new Entry();
+            entry.pendingAdds = 1;
+            entries.put(item, entry);
+        }
+        toAdd.addAll(items);
+        return items.size();
+    }
+
     /**
      * Remove an element from the list. More specifically, it removes the first
      * element in the list that "equals" the specified item.
@@ -98,9 +151,18 @@ public class ModifiableList<E> implements Iterable<E> {
      * recently, before a call to flushChanges, the method will return false and have no effect.
      */
     public boolean remove(E item) {
-        boolean removedFromToAdd = toAdd.remove(item);
-        if(!list.contains(item) || toRemove.contains(item))
+        var entry = entries.get(item);
+        if(entry == null)
+            return false;
+        boolean removedFromToAdd = false;
+        if(entry.pendingAdds > 0) {
+            entry.pendingAdds--;
+            entry.cancelledAdds++;
+            removedFromToAdd = true;
+        }
+        if(entry.inList == 0 || entry.isPendingRemoval)
             return removedFromToAdd;
+        entry.isPendingRemoval = true;
         toRemove.add(item);
         return true;
     }
@@ -109,18 +171,51 @@ public class ModifiableList<E> implements Iterable<E> {
      * Applies to the list the modifications made to it since the last call to this method.
      */
     public void flushChanges() {
-        list.removeAll(toRemove);
-        toRemove.clear();
-        list.addAll(toAdd);
-        toAdd.clear();
+        flushChanges(null, null);
+    }
+
+    /**
+     * Applies to the list the modifications made to it since the last call to this method,
+     * and reports every element that was actually removed from or added to the list.
+     * @param onRemoved called for each removed element, before the additions are applied.
+     *                  Can be null.
+     * @param onAdded called for each added element. Can be null.
+     */
+    public void flushChanges(Consumer<E> onRemoved, Consumer<E> onAdded) {
+        if(!toRemove.isEmpty()) {
+            applyRemovals();
+            if(onRemoved != null)
+                toRemove.forEach(onRemoved);
+            toRemove.clear();
+        }
+        if(!toAdd.isEmpty()) {
+            for(int i = 0 ; i < toAdd.size() ; i++) {
+                var item = toAdd.get(i);
+                var entry = entries.get(item);
+                if(entry.cancelledAdds > 0) {
+                    entry.cancelledAdds--;
+                    if(entry.isEmpty())
+                        entries.remove(item);
+                    continue;
+                }
+                entry.pendingAdds--;
+                entry.inList++;
+                append(item, entry);
+                if(onAdded != null)
+                    onAdded.accept(item);
+            }
+            toAdd.clear();
+        }
     }
 
     /**
      * Returns an element in a given index.
      * @throws IndexOutOfBoundsException – if the index is out of range
      */
+    @SuppressWarnings("unchecked")
     public E get(int index) {
-        return list.get(index);
+        Objects.checkIndex(index, size);
+        return (E)elements[index];
     }
 
     /**
@@ -128,7 +223,7 @@ public class ModifiableList<E> implements Iterable<E> {
      * to {@link #flushChanges()}.
      */
     public int size() {
-        return list.size();
+        return size;
     }
 
     /**
@@ -139,21 +234,23 @@ public class ModifiableList<E> implements Iterable<E> {
      * would still remain after the removal is applied.
      */
     public boolean contains(E item) {
-        return (list.contains(item) || toAdd.contains(item)) && !toRemove.contains(item);
+        var entry = entries.get(item);
+        return entry != null && (entry.inList > 0 || entry.pendingAdds > 0) && !entry.isPendingRemoval;
     }
 
     @Override
     public Iterator<E> iterator() {
-        if(iterator.tryReset(0, 1, list.size()))
+        if(iterator.tryReset(0, 1, size))
             return iterator;
         var newIt = new MyIterator();
-        newIt.tryReset(0, 1, list.size());
+        newIt.tryReset(0, 1, size);
         return newIt;
     }
 
     @Override
+    @SuppressWarnings("unchecked")
     public Spliterator<E> spliterator() {
-        return list.spliterator();
+        return (Spliterator<E>)Spliterators.spliterator(elements, 0, size, Spliterator.ORDERED);
     }
 
     /**
@@ -170,14 +267,61 @@ public class ModifiableList<E> implements Iterable<E> {
      * or null if none is found.
      */
     public E findFirst(Predicate<E> predicate) {
-        for(E el : this) {
-            if(!toRemove.contains(el) && predicate.test(el))
+        for(int i = 0 ; i < size ; i++) {
+            E el = get(i);
+            if(!entryAt[i].isPendingRemoval && predicate.test(el))
                 return el;
         }
         for(E el : toAdd) {
-            if(predicate.test(el))
+            if(entries.get(el).pendingAdds > 0 && predicate.test(el))
                 return el;
         }
         return null;
     }
+
+    //removes every element pending removal (with all its duplicates), keeping the order of the rest
+    private void applyRemovals() {
+        int firstRemoved = 0;
+        if(!allowDuplicates) {
+            firstRemoved = size;
+            for(int i = 0 ; i < toRemove.size() ; i++)
+                firstRemoved = Math.min(firstRemoved, entries.get(toRemove.get(i)).index);
+        }
+        int kept = firstRemoved;
+        for(int i = firstRemoved ; i < size ; i++) {
+            var entry = entryAt[i];
+            if(entry.isPendingRemoval) {
+                entry.inList--;
+                continue;
+            }
+            elements[kept] = elements[i];
+            entryAt[kept] = entry;
+            if(!allowDuplicates)
+                entry.index = kept;
+            kept++;
+        }
+        Arrays.fill(elements, kept, size, null);
+        Arrays.fill(entryAt, kept, size, null);
+        size = kept;
+        for(int i = 0 ; i < toRemove.size() ; i++) {
+            var item = toRemove.get(i);
+            var entry = entries.get(item);
+            entry.isPendingRemoval = false;
+            entry.index = -1;
+            if(entry.isEmpty())
+                entries.remove(item);
+        }
+    }
+
+    private void append(E item, Entry entry) {
+        if(size == elements.length) {
+            elements = Arrays.copyOf(elements, size * 2);
+            entryAt = Arrays.copyOf(entryAt, size * 2);
+        }
+        elements[size] = item;
+        entryAt[size] = entry;
+        if(!allowDuplicates)
+            entry.index = size;
+        size++;
+    }
 }
@@ -3,6 +3,8 @@ package pepse;
 import danogl.GameManager;
 import danogl.GameObject;
 import danogl.collisions.Layer;
+import danogl.collisions.UniformGridBroadphase;
+import danogl.collisions.heightfield.HeightfieldPairCollisionHandler;
 import danogl.gui.ImageReader;
 import danogl.gui.SoundReader;
 import danogl.gui.UserInputListener;
@@ -29,6 +31,10 @@ public class PepseGameManager extends GameManager {
     /** cycle length */
     public static final float CYCLE_LENGTH = 30f;
     private static final int SEED = 12345;
+    /** Edge of a collision grid cell, in blocks. */
+    private static final int COLLISION_CELL_BLOCKS = 4;
+    /** Distance, in window widths, beyond which world chunks are unloaded. */
+    private static final float RETENTION_WINDOWS = 3f;
     private pepse.world.infinite.InfiniteWorldGenerator worldGen;
     private Avatar avatar;
 
@@ -56,18 +62,17 @@ public class PepseGameManager extends GameManager {
                                WindowController windowController) {
         super.initializeGame(imageReader, soundReader, inputListener, windowController);
         var windowDimensions=windowController.getWindowDimensions();
+        // only pair objects that are near each other, the world grows without bound
+        gameObjects().setBroadphase(new UniformGridBroadphase(Block.SIZE * COLLISION_CELL_BLOCKS));
 
         //sky
         GameObject sky= Sky.create(windowDimensions);
         gameObjects().addGameObject(sky, Layer.BACKGROUND);
 
-        //terrain
+        //terrain: a single heightfield collides with everything, blocks are only drawn
         Terrain terrain = new Terrain(windowDimensions, SEED);
-        int minX=0;
-        int maxX=(int)windowController.getWindowDimensions().x();
-        for(Block b : terrain.createInRange(minX, maxX)){
-            gameObjects().addGameObject(b, Layer.STATIC_OBJECTS);
-        }
+        gameObjects().registerPairCollisionHandler(new HeightfieldPairCollisionHandler());
+        gameObjects().addGameObject(terrain.createGround(), Layer.STATIC_OBJECTS);
 
         // Sun + halo
         GameObject sun= Sun.create(windowDimensions,CYCLE_LENGTH);
@@ -98,40 +103,29 @@ public class PepseGameManager extends GameManager {
 
         // Tree
         Flora flora = new Flora(terrain::groundHeightAt,SEED);
-        java.util.List<GameObject> trees = flora.createInRange(minX, maxX);
-
-        for (GameObject obj : trees) {
-            String tag = obj.getTag();
-            switch (tag) {
-                case "trunk":
-                    gameObjects().addGameObject(obj, Layer.STATIC_OBJECTS);
-                    break;
-                case "leaf":
-                    gameObjects().addGameObject(obj, Layer.STATIC_OBJECTS + 1);
-                    break;
-                case "fruit":
-                    gameObjects().addGameObject(obj, Layer.DEFAULT);
-                    break;
-            }
-        }
-        // Infinite world generator initialization
-        int initialMinX = 0;
-        int initialMaxX = (int) windowDimensions.x();
+
+        // Infinite world generator: streams terrain and flora chunks around the avatar
         int bufferPx = (int) (2 * windowDimensions.x());
+        int retentionPx = (int) (RETENTION_WINDOWS * windowDimensions.x());
 
+        if (worldGen != null) {
+            // the game was restarted; the old generator's workers are no longer needed
+            worldGen.shutdown();
+        }
         worldGen = new pepse.world.infinite.InfiniteWorldGenerator(
                 gameObjects(),
                 terrain,
                 flora,
-                initialMinX,
-                initialMaxX,
-                bufferPx
+                bufferPx,
+                retentionPx,
+                windowController.messages()
         );
+        worldGen.update(avatar.getCenter().x());
     }
 
     /**
-     * Per-frame update: delegates to the infinite-world generator to expand the world
-     * around the avatar as it moves.
+     * Per-frame update: delegates to the infinite-world generator to stream world chunks
+     * in and out around the avatar as it moves.
      *
      * @param deltaTime elapsed time since last frame.
      */
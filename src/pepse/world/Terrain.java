@@ -1,19 +1,24 @@
 package pepse.world;
 
-import danogl.gui.rendering.RectangleRenderable;
-import danogl.gui.rendering.Renderable;
+import danogl.GameObject;
+import danogl.collisions.heightfield.HeightfieldCollider;
+import danogl.components.GameObjectPhysics;
 import danogl.util.Vector2;
 import pepse.utils.ColorSupplier;
 import pepse.utils.NoiseGenerator;
 
 import java.awt.*;
 import java.util.ArrayList;
-import java.util.HashSet;
 import java.util.List;
+import java.util.Objects;
+import java.util.Random;
 /**
  * Responsible for generating and managing the ground terrain.
  * Terrain height is computed using Perlin-like noise (via {@link NoiseGenerator}) around a baseline
- * height at x=0, and the terrain is created as vertical columns of {@link Block}s.
+ * height at x=0. The terrain is computed as vertical columns of blocks
+ * (see {@link #columnsInRange(int, int)}), and the columns of a range are drawn by a single
+ * object (see {@link #createSurface(List)}). That object is visual only: collisions with the
+ * ground are resolved against a single heightfield object, see {@link #createGround()}.
  */
 public class Terrain {
     private static final int TERRAIN_DEPTH = 20;
@@ -21,8 +26,8 @@ public class Terrain {
     /** Tag used to identify ground blocks. */
     public static final String GROUND_TAG = "ground";
     private final float groundHeightAtX0;
-    private final HashSet<Integer> generatedColumns= new HashSet<>();
     private final NoiseGenerator noiseGenerator;
+    private final int seed;
     /**
      * Constructs a terrain generator.
      *
@@ -31,6 +36,7 @@ public class Terrain {
      */
     public Terrain(Vector2 windowDimensions, int seed){
         this.groundHeightAtX0=windowDimensions.y()*((float) 2 /3);
+        this.seed = seed;
         this.noiseGenerator = new NoiseGenerator(seed,(int)groundHeightAtX0);
     }
     /**
@@ -45,37 +51,76 @@ public class Terrain {
         return groundHeightAtX0+(float)noise;
     }
     /**
-     * Creates terrain blocks in the requested x-range. Generation is snapped to the block grid,
-     * and overlapping calls do not duplicate already-created columns.
+     * Computes the y coordinate of the top of the terrain column containing x, that is the
+     * ground height snapped down to the block grid. This is where objects stand.
+     *
+     * @param x x coordinate in world units.
+     * @return top y coordinate of the column containing x.
+     */
+    public float columnTopAt(float x){
+        float columnX = (float) (Math.floor(x / Block.SIZE) * Block.SIZE);
+        return (float) (Math.floor(groundHeightAt(columnX) / Block.SIZE) * Block.SIZE);
+    }
+
+    /**
+     * Creates the single object all collisions with the ground are resolved against.
+     * Its collider is a {@link HeightfieldCollider} following {@link #columnTopAt(float)}
+     * over the whole world, so no block needs a collider of its own. The object has no
+     * renderable; the visible terrain is created by {@link #createSurface(List)}.
+     *
+     * @return the ground object, tagged {@link #GROUND_TAG}.
+     */
+    public GameObject createGround(){
+        // at the origin with unit dimensions, the collider's coordinates are world coordinates
+        GameObject ground = new GameObject(Vector2.ZERO, Vector2.ONES, null);
+        ground.physics().setCollider(
+                new HeightfieldCollider(Block.SIZE, x -> columnTopAt((float) x)));
+        ground.physics().preventIntersectionsFromDirection(Vector2.ZERO);
+        ground.physics().setMass(GameObjectPhysics.IMMOVABLE_MASS);
+        ground.setTag(GROUND_TAG);
+        return ground;
+    }
+
+    /**
+     * Computes the data of the terrain columns in the requested x-range, snapped to the block grid.
+     * This creates no game objects and touches no shared state, so it is safe to call from
+     * any thread.
      *
      * @param minX left boundary (inclusive) in world coordinates.
      * @param maxX right boundary (inclusive) in world coordinates.
-     * @return list of newly created {@link Block}s in the requested range.
+     * @return the columns in the requested range, from left to right.
      */
-    public List<Block> createInRange(int minX, int maxX){
-       List<Block> blocks = new ArrayList<>();
-       int size=Block.SIZE;
-       int startX=(int) Math.floor((double) minX / size) * size;
-       int endX=(int) Math.ceil((double) maxX / size) * size;
+    public List<TerrainColumn> columnsInRange(int minX, int maxX) {
+        List<TerrainColumn> columns = new ArrayList<>();
+        int size = Block.SIZE;
+        int startX = (int) Math.floor((double) minX / size) * size;
+        int endX = (int) Math.ceil((double) maxX / size) * size;
         for (int x = startX; x <= endX; x += size) {
-            if(generatedColumns.contains(x)){
-                continue;
-            }
-            generatedColumns.add(x);
-            int topY = (int) (Math.floor(groundHeightAt(x) / size) * size);
-
+            int topY = (int) columnTopAt(x);
+            Random colorRandom = new Random(Objects.hash(x, seed));
+            Color[] colors = new Color[TERRAIN_DEPTH];
             for (int i = 0; i < TERRAIN_DEPTH; i++) {
-                int y = topY + i * size;
-
-                Renderable renderable = new RectangleRenderable(
-                        ColorSupplier.approximateColor(BASE_GROUND_COLOR)
-                );
-
-                Block block = new Block(new Vector2(x, y), renderable); // adjust if your ctor differs
-                block.setTag(GROUND_TAG);
-                blocks.add(block);
+                colors[i] = ColorSupplier.approximateColor(BASE_GROUND_COLOR, colorRandom);
             }
+            columns.add(new TerrainColumn(x, topY, colors));
         }
-        return blocks;
+        return columns;
+    }
+
+    /**
+     * Creates the visible terrain of the given columns as a single object, drawn from a
+     * raster cached by its {@link TerrainRenderable}. The object is visual only; collisions
+     * with the ground go through {@link #createGround()}. Must be called from the game thread.
+     *
+     * @param columns the columns' data, as computed by {@link #columnsInRange(int, int)},
+     *                from left to right. Must not be empty.
+     * @return an object covering the columns' bounding box, tagged {@link #GROUND_TAG}.
+     */
+    public GameObject createSurface(List<TerrainColumn> columns) {
+        TerrainRenderable renderable = new TerrainRenderable(columns);
+        GameObject surface = new GameObject(renderable.topLeftCorner(), renderable.dimensions(),
+                renderable);
+        surface.setTag(GROUND_TAG);
+        return surface;
     }
 }
@@ -0,0 +1,64 @@
+package pepse.world;
+
+import java.awt.Color;
+
+/**
+ * The pure data describing a single terrain column: its x, the y of its top block, and the
+ * colors of its blocks from top to bottom. Creating it involves no game objects, so it can
+ * be computed off the game thread.
+ */
+public final class TerrainColumn {
+    private final int x;
+    private final int topY;
+    private final Color[] blockColors;
+
+    /**
+     * Constructs a terrain column description.
+     *
+     * @param x           x coordinate of the column's left edge, snapped to the block grid.
+     * @param topY        y coordinate of the column's top block, snapped to the block grid.
+     * @param blockColors colors of the column's blocks, from top to bottom.
+     */
+    public TerrainColumn(int x, int topY, Color[] blockColors) {
+        this.x = x;
+        this.topY = topY;
+        this.blockColors = blockColors;
+    }
+
+    /**
+     * Returns the x coordinate of the column's left edge.
+     *
+     * @return column x.
+     */
+    public int x() {
+        return x;
+    }
+
+    /**
+     * Returns the y coordinate of the column's top block.
+     *
+     * @return top block y.
+     */
+    public int topY() {
+        return topY;
+    }
+
+    /**
+     * Returns the number of blocks in the column.
+     *
+     * @return column depth in blocks.
+     */
+    public int depth() {
+        return blockColors.length;
+    }
+
+    /**
+     * Returns the color of a block in the column.
+     *
+     * @param i block index, 0 being the top block.
+     * @return the block's color.
+     */
+    public Color blockColor(int i) {
+        return blockColors[i];
+    }
+}
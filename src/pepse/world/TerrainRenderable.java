@@ -0,0 +1,103 @@
+package pepse.world;
+
+import danogl.gui.rendering.Renderable;
+import danogl.util.Vector2;
+
+import java.awt.Graphics2D;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+import java.util.List;
+
+/**
+ * Renders a group of terrain columns as a single surface. The columns are rasterized once,
+ * block by block, into a cached image, which is then drawn with a single blit per frame,
+ * stretched over the dimensions of the owning object. Thus drawing a whole chunk of terrain
+ * costs about as much as drawing one block.
+ * The raster is created on first render, in a format compatible with the screen, and is
+ * kept until {@link #invalidate()} is called.
+ * Rotation, flipping and opaqueness are ignored; terrain never uses them.
+ */
+public class TerrainRenderable implements Renderable {
+    private final List<TerrainColumn> columns;
+    private final int minX;
+    private final int minY;
+    private final int width;
+    private final int height;
+    private BufferedImage raster;
+
+    /**
+     * Constructs a renderable for the given columns. Columns need not be adjacent nor of
+     * equal height; the raster is transparent wherever there is no block.
+     *
+     * @param columns the columns, from left to right.
+     */
+    public TerrainRenderable(List<TerrainColumn> columns) {
+        this.columns = List.copyOf(columns);
+        TerrainColumn last = columns.get(columns.size() - 1);
+        int top = Integer.MAX_VALUE;
+        int bottom = Integer.MIN_VALUE;
+        for (TerrainColumn column : columns) {
+            top = Math.min(top, column.topY());
+            bottom = Math.max(bottom, column.topY() + column.depth() * Block.SIZE);
+        }
+        this.minX = columns.get(0).x();
+        this.minY = top;
+        this.width = last.x() + Block.SIZE - minX;
+        this.height = bottom - top;
+    }
+
+    /**
+     * Returns the world position the renderable should be drawn at for the blocks to
+     * appear where their columns are.
+     *
+     * @return top-left corner of the columns' bounding box.
+     */
+    public Vector2 topLeftCorner() {
+        return new Vector2(minX, minY);
+    }
+
+    /**
+     * Returns the dimensions of the columns' bounding box.
+     *
+     * @return width and height of the columns' bounding box.
+     */
+    public Vector2 dimensions() {
+        return new Vector2(width, height);
+    }
+
+    /**
+     * Discards the cached raster, so the columns are rasterized again on the next render.
+     */
+    public void invalidate() {
+        raster = null;
+    }
+
+    @Override
+    public void render(Graphics2D g,
+                       Vector2 topLeftCorner,
+                       Vector2 dimensions,
+                       double degreesCounterClockwise,
+                       boolean isFlippedHorizontally, boolean isFlippedVertically,
+                       double opaqueness) {
+        if (raster == null) {
+            raster = rasterize(g);
+        }
+        g.drawImage(raster, (int) topLeftCorner.x(), (int) topLeftCorner.y(),
+                (int) dimensions.x(), (int) dimensions.y(), null);
+    }
+
+    private BufferedImage rasterize(Graphics2D target) {
+        BufferedImage image = target.getDeviceConfiguration()
+                .createCompatibleImage(width, height, Transparency.BITMASK);
+        Graphics2D g = image.createGraphics();
+        for (TerrainColumn column : columns) {
+            int left = column.x() - minX;
+            for (int i = 0; i < column.depth(); i++) {
+                g.setColor(column.blockColor(i));
+                g.fillRect(left, column.topY() - minY + i * Block.SIZE, Block.SIZE, Block.SIZE);
+            }
+        }
+        g.dispose();
+        return image;
+    }
+}
@@ -26,7 +26,7 @@ public class Night {
         GameObject night =new GameObject(Vector2.ZERO,windowDimensions,new RectangleRenderable(Color.BLACK));
         night.setCoordinateSpace(CoordinateSpace.CAMERA_COORDINATES);
         night.setTag(NIGHT_TAG);
-        new Transition<>(night,
+        Transition.ofFloat(night,
                 night.renderer()::setOpaqueness,
                 0f,
                 MIDNIGHT_OPACITY,
@@ -34,8 +34,8 @@ public class Sun {
         Vector2 initialSunCenter = new Vector2(windowDimensions.x()/2f,
                 groundHeightAtX0/2f);
         sun.setCenter(initialSunCenter);
-        new Transition<>(sun,
-                (Float angle)-> sun.setCenter(
+        Transition.ofFloat(sun,
+                angle-> sun.setCenter(
                         initialSunCenter.subtract(cycleCenter)
                                 .rotated(angle)
                                 .add(cycleCenter)
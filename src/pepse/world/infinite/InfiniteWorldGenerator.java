@@ -3,107 +3,316 @@ package pepse.world.infinite;
 import danogl.GameObject;
 import danogl.collisions.GameObjectCollection;
 import danogl.collisions.Layer;
+import danogl.gui.MessageHandler;
+import danogl.gui.MsgLevel;
 import pepse.world.Block;
 import pepse.world.Terrain;
+import pepse.world.TerrainColumn;
 import pepse.world.trees.Flora;
+import pepse.world.trees.TreeLayout;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import static pepse.world.trees.Flora.LEAF_TAG;
 import static pepse.world.trees.Flora.TRUNK_TAG;
 
 /**
- * Handles infinite-world generation by expanding terrain and flora around the avatar
- * as it moves. The generator maintains the range already created and extends it when
- * the avatar approaches the edges of the generated area.
+ * Handles infinite-world generation by streaming fixed-width chunks of terrain and flora
+ * around the avatar. Chunks entering the buffer window around the avatar are loaded, and
+ * chunks farther than the retention radius are unloaded: all their objects are removed
+ * from the game. Since generation is deterministic, a chunk that is revisited is simply
+ * generated again from the seed. Thus the number of live objects stays bounded no matter
+ * how far the avatar travels.
+ * <br>Loading is split in two. The chunk's data (column heights, tree layouts and colors)
+ * is computed on a pool of worker threads as soon as the chunk enters the buffer window.
+ * The game thread then only turns ready data into game objects, and inserts at most
+ * {@link #MAX_INSERTIONS_PER_FRAME} objects per frame, so streaming never causes a frame
+ * spike. Chunks within half the buffer of the avatar are urgent: they are completed
+ * immediately regardless of the budget, waiting for their data if needed, so the avatar
+ * never reaches ground that does not exist yet.
+ * <br>If computing a chunk's data fails, the failure is reported and the chunk is generated
+ * again, up to {@link #MAX_GENERATION_ATTEMPTS} times; after that the chunk is left empty
+ * until it is unloaded.
  */
 public class InfiniteWorldGenerator {
+    /** Width of a single chunk, in blocks. */
+    public static final int CHUNK_WIDTH_BLOCKS = 16;
+    /** Width of a single chunk, in pixels. */
+    public static final int CHUNK_WIDTH = CHUNK_WIDTH_BLOCKS * Block.SIZE;
+    /**
+     * Layer of the visible terrain. No layer collides with it: collisions with the ground go
+     * through the single object created by {@link Terrain#createGround()}.
+     */
+    public static final int TERRAIN_LAYER = Layer.STATIC_OBJECTS - 1;
+    /** The maximal number of game objects inserted per frame for chunks that are not urgent. */
+    public static final int MAX_INSERTIONS_PER_FRAME = 256;
+    /** The number of times a chunk's data is computed before giving up on the chunk. */
+    public static final int MAX_GENERATION_ATTEMPTS = 3;
     /** Tag for fruit objects. */
     private static final String FRUIT_TAG = "fruit";
+
+    /**
+     * The pure data of a single chunk, computed by a worker thread.
+     */
+    private static class ChunkData {
+        private final List<TerrainColumn> columns;
+        private final List<TreeLayout> trees;
+
+        private ChunkData(List<TerrainColumn> columns, List<TreeLayout> trees) {
+            this.columns = columns;
+            this.trees = trees;
+        }
+    }
+
+    /**
+     * A chunk in the window: its pending data, how much of it was inserted so far,
+     * and the objects inserted, grouped by the layer they were added to.
+     */
+    private static class Chunk {
+        private final CompletableFuture<ChunkData> data;
+        private final int attempt;
+        private final Map<Integer, List<GameObject>> objectsByLayer = new HashMap<>();
+        private boolean isTerrainInserted = false;
+        private int nextTree = 0;
+        private boolean isAbandoned = false;
+
+        private Chunk(CompletableFuture<ChunkData> data, int attempt) {
+            this.data = data;
+            this.attempt = attempt;
+        }
+
+        private void add(GameObject obj, int layerId) {
+            objectsByLayer.computeIfAbsent(layerId, id -> new ArrayList<>()).add(obj);
+        }
+
+        private boolean isComplete() {
+            if (isAbandoned) {
+                return true;
+            }
+            // a failed chunk is not complete, so insertChunk gets to handle the failure
+            if (!data.isDone() || data.isCompletedExceptionally()) {
+                return false;
+            }
+            ChunkData chunkData = data.join();
+            return isTerrainInserted && nextTree == chunkData.trees.size();
+        }
+    }
+
     private final GameObjectCollection gameObjects;
     private final Terrain terrain;
     private final Flora flora;
     private final int bufferPx;
-    private int generatedMinX;
-    private int generatedMaxX;
+    private final int retentionPx;
+    private final MessageHandler messages;
+    private final ExecutorService workers;
+    private final Map<Integer, Chunk> loadedChunks = new HashMap<>();
+    private int windowMinChunk = Integer.MAX_VALUE;
+    private int windowMaxChunk = Integer.MIN_VALUE;
+
     /**
-     * Constructs an infinite-world generator.
+     * Constructs an infinite-world generator. No chunk is loaded until the first call to
+     * {@link #update(float)}.
      *
      * @param gameObjects  world object collection to insert generated objects into.
      * @param terrain      terrain generator used for ground creation.
      * @param flora        flora generator used for vegetation creation.
-     * @param initialMinX  initial left boundary already generated.
-     * @param initialMaxX  initial right boundary already generated.
-     * @param bufferPx     extra distance (pixels) to keep generated beyond the avatar position.
+     * @param bufferPx     distance (pixels) around the avatar in which chunks are kept loaded.
+     * @param retentionPx  distance (pixels) from the avatar beyond which chunks are unloaded.
+     *                     Must be at least bufferPx.
+     * @param messages     where failures to generate chunks are reported.
      */
     public InfiniteWorldGenerator(GameObjectCollection gameObjects,
                                   Terrain terrain,
                                   Flora flora,
-                                  int initialMinX,
-                                  int initialMaxX,
-                                  int bufferPx){
+                                  int bufferPx,
+                                  int retentionPx,
+                                  MessageHandler messages){
+        if (retentionPx < bufferPx) {
+            throw new IllegalArgumentException("Retention radius must not be smaller than the buffer");
+        }
         this.gameObjects = gameObjects;
         this.terrain = terrain;
         this.flora = flora;
         this.bufferPx = bufferPx;
-        this.generatedMinX = snapDown(initialMinX, Block.SIZE);
-        this.generatedMaxX = snapUp(initialMaxX, Block.SIZE);
+        this.retentionPx = retentionPx;
+        this.messages = messages;
+        int workerCount = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+        this.workers = Executors.newFixedThreadPool(workerCount, runnable -> {
+            Thread thread = new Thread(runnable, "world-generation");
+            thread.setDaemon(true);
+            return thread;
+        });
     }
+
     /**
-     * Updates the generated world range according to the avatar x-position.
-     * If the avatar approaches beyond the existing range (minus buffer), extends the world
-     * by generating terrain and flora for the missing range.
+     * Updates the loaded chunks according to the avatar x-position: starts generating every
+     * chunk within the buffer around the avatar which is not loaded yet, unloads every chunk
+     * that lies entirely beyond the retention radius, and inserts the objects of chunks whose
+     * data is ready. Must be called once per frame.
      *
      * @param avatarX current x coordinate of the avatar center.
      */
     public void update(float avatarX){
-        int targetMin = snapDown((int) avatarX - bufferPx, Block.SIZE);
-        int targetMax = snapUp((int) avatarX + bufferPx, Block.SIZE);
+        int minChunk = chunkIndexAt((int) avatarX - bufferPx);
+        int maxChunk = chunkIndexAt((int) avatarX + bufferPx);
+        if (minChunk != windowMinChunk || maxChunk != windowMaxChunk) {
+            windowMinChunk = minChunk;
+            windowMaxChunk = maxChunk;
+            updateWindow(avatarX);
+        }
+        insertReadyChunks(avatarX);
+    }
+
+    /**
+     * Returns the number of chunks currently loaded, including chunks whose objects were
+     * not all inserted yet.
+     *
+     * @return number of loaded chunks.
+     */
+    public int loadedChunkCount() {
+        return loadedChunks.size();
+    }
 
-        // extend left
-        if (targetMin < generatedMinX) {
-            generateRange(targetMin, generatedMinX);
-            generatedMinX = targetMin;
+    /**
+     * Stops the worker threads. Chunks already loaded are left as they are, and the
+     * generator must not be updated afterwards.
+     */
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+
+    private void updateWindow(float avatarX) {
+        for (int index = windowMinChunk; index <= windowMaxChunk; index++) {
+            if (!loadedChunks.containsKey(index)) {
+                loadedChunks.put(index, generateChunk(index, 1));
+            }
         }
 
-        // extend right
-        if (targetMax > generatedMaxX) {
-            generateRange(generatedMaxX, targetMax);
-            generatedMaxX = targetMax;
+        Iterator<Map.Entry<Integer, Chunk>> iterator = loadedChunks.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Integer, Chunk> entry = iterator.next();
+            int chunkMinX = chunkMinX(entry.getKey());
+            int chunkMaxX = chunkMinX + CHUNK_WIDTH;
+            if (chunkMaxX < avatarX - retentionPx || chunkMinX > avatarX + retentionPx) {
+                unloadChunk(entry.getValue());
+                iterator.remove();
+            }
         }
+    }
 
+    private Chunk generateChunk(int index, int attempt) {
+        int minX = chunkMinX(index);
+        int maxX = minX + CHUNK_WIDTH - Block.SIZE;
+        return new Chunk(CompletableFuture.supplyAsync(
+                () -> new ChunkData(terrain.columnsInRange(minX, maxX),
+                        flora.layoutsInRange(minX, maxX)),
+                workers), attempt);
     }
-    private void generateRange(int minX, int maxX) {
-        // Terrain
-        for (Block b : terrain.createInRange(minX, maxX)) {
-            gameObjects.addGameObject(b, Layer.STATIC_OBJECTS);
+
+    private void insertReadyChunks(float avatarX) {
+        int avatarChunk = chunkIndexAt((int) avatarX);
+        int urgentMinChunk = chunkIndexAt((int) avatarX - bufferPx / 2);
+        int urgentMaxChunk = chunkIndexAt((int) avatarX + bufferPx / 2);
+        int budget = MAX_INSERTIONS_PER_FRAME;
+        // Nearest chunks first, so the budget goes where the avatar is about to be.
+        int maxDistance = Math.max(avatarChunk - windowMinChunk, windowMaxChunk - avatarChunk);
+        for (int distance = 0; distance <= maxDistance; distance++) {
+            budget = insertChunk(avatarChunk - distance, urgentMinChunk, urgentMaxChunk, budget);
+            if (distance != 0) {
+                budget = insertChunk(avatarChunk + distance, urgentMinChunk, urgentMaxChunk, budget);
+            }
         }
+    }
 
-        // Flora
-        List<GameObject> objs = flora.createInRange(minX, maxX);
-        for (GameObject obj : objs) {
-            addFloraObject(obj);
+    private int insertChunk(int index, int urgentMinChunk, int urgentMaxChunk, int budget) {
+        Chunk chunk = loadedChunks.get(index);
+        if (chunk == null || chunk.isComplete()) {
+            return budget;
+        }
+        boolean isUrgent = index >= urgentMinChunk && index <= urgentMaxChunk;
+        if (!isUrgent && (budget <= 0 || !chunk.data.isDone())) {
+            return budget;
+        }
+        ChunkData data;
+        try {
+            data = chunk.data.join();
+        } catch (CompletionException e) {
+            handleFailedChunk(index, chunk, e.getCause());
+            return budget;
+        }
+        if (!chunk.isTerrainInserted) {
+            // the chunk's whole terrain is a single object drawn from a cached raster
+            insert(chunk, terrain.createSurface(data.columns), TERRAIN_LAYER);
+            budget--;
+            chunk.isTerrainInserted = true;
+        }
+        // The new trees' objects are added in one batch per layer; being new, they are
+        // known not to be in the game yet.
+        Map<Integer, List<GameObject>> newObjectsByLayer = new HashMap<>();
+        while (chunk.nextTree < data.trees.size() && (isUrgent || budget > 0)) {
+            for (GameObject obj : flora.createTree(data.trees.get(chunk.nextTree++))) {
+                int layerId = floraLayer(obj);
+                chunk.add(obj, layerId);
+                newObjectsByLayer.computeIfAbsent(layerId, id -> new ArrayList<>()).add(obj);
+                budget--;
+            }
+        }
+        newObjectsByLayer.forEach((layerId, objects) ->
+                gameObjects.addGameObjects(objects, layerId, true));
+        return budget;
+    }
+
+    private void handleFailedChunk(int index, Chunk chunk, Throwable cause) {
+        boolean isRetried = chunk.attempt < MAX_GENERATION_ATTEMPTS;
+        messages.showMessage(String.format("Failed to generate the chunk at x=%d (attempt %d of %d)%s: %s",
+                        chunkMinX(index), chunk.attempt, MAX_GENERATION_ATTEMPTS,
+                        isRetried ? ", retrying" : "", cause),
+                MsgLevel.WARNING);
+        if (isRetried) {
+            unloadChunk(chunk);
+            loadedChunks.put(index, generateChunk(index, chunk.attempt + 1));
+        } else {
+            chunk.isAbandoned = true;
         }
     }
-    private void addFloraObject(GameObject obj) {
+
+    private void insert(Chunk chunk, GameObject obj, int layerId) {
+        chunk.add(obj, layerId);
+        gameObjects.addGameObject(obj, layerId);
+    }
+
+    private void unloadChunk(Chunk chunk) {
+        // Data still being computed is simply dropped once ready.
+        chunk.data.cancel(false);
+        chunk.objectsByLayer.forEach((layerId, objects) ->
+                gameObjects.removeGameObjects(objects, layerId));
+    }
+
+    private static int floraLayer(GameObject obj) {
         String tag = obj.getTag();
         if (TRUNK_TAG.equals(tag)) {
-            gameObjects.addGameObject(obj, Layer.STATIC_OBJECTS);
+            return Layer.STATIC_OBJECTS;
         } else if (LEAF_TAG.equals(tag)) {
-            gameObjects.addGameObject(obj, Layer.STATIC_OBJECTS + 1);
+            return Layer.STATIC_OBJECTS + 1;
         } else if (FRUIT_TAG.equals(tag)) {
-            gameObjects.addGameObject(obj, Layer.DEFAULT);
-        } else {
-            gameObjects.addGameObject(obj, Layer.DEFAULT);
+            return Layer.DEFAULT;
         }
+        return Layer.DEFAULT;
     }
 
-    private static int snapDown(int x, int size) {
-        return Math.floorDiv(x, size) * size;
+    private static int chunkIndexAt(int x) {
+        return Math.floorDiv(x, CHUNK_WIDTH);
     }
 
-    private static int snapUp(int x, int size) {
-        int d = Math.floorDiv(x, size) * size;
-        return (d == x) ? x : d + size;
+    private static int chunkMinX(int index) {
+        return index * CHUNK_WIDTH;
     }
 }
@@ -15,8 +15,9 @@ import java.util.Random;
 import java.util.function.Function;
 /**
  * Procedurally generates trees (trunks, leaves and fruits) in a given x-range.
- * Generation is deterministic per x-coordinate using a fixed seed, and repeated calls
- * with overlapping ranges will not duplicate trees.
+ * Generation is deterministic per x-coordinate using a fixed seed: the layouts of the trees
+ * are computed by {@link #layoutsInRange(int, int)}, and a tree recreated from its layout by
+ * {@link #createTree(TreeLayout)} looks exactly the same.
  */
 public class Flora {
     private static final Color TRUNK_COLOR = new Color(100, 50, 20);
@@ -42,7 +43,6 @@ public class Flora {
 
     private final Function<Float, Float> groundHeightFunc;
     private final int seed;
-    private final java.util.HashSet<Integer> generatedTreeXs = new java.util.HashSet<>();
 
     /**
      * Constructs a flora generator.
@@ -55,28 +55,77 @@ public class Flora {
         this.seed = seed;
     }
     /**
-     * Creates flora objects in the given x-range.
-     * The returned list includes trunks, leaves and fruits (as {@link GameObject}s).
+     * Computes the layouts of the trees in the given x-range, snapped to the block grid.
+     * This creates no game objects and touches no shared state, so it is safe to call from
+     * any thread, provided the ground height function is.
      *
      * @param minX left boundary (inclusive) in world coordinates.
      * @param maxX right boundary (inclusive) in world coordinates.
-     * @return list of generated flora objects in the requested range.
+     * @return layouts of the trees in the requested range, from left to right.
      */
-    public List<GameObject> createInRange(int minX, int maxX) {
-        List<GameObject> treeParts = new ArrayList<>();
-        int startX = (minX / Block.SIZE) * Block.SIZE;
-        int endX = (maxX / Block.SIZE) * Block.SIZE;
-
+    public List<TreeLayout> layoutsInRange(int minX, int maxX) {
+        List<TreeLayout> layouts = new ArrayList<>();
+        int startX = Math.floorDiv(minX, Block.SIZE) * Block.SIZE;
+        int endX = Math.floorDiv(maxX, Block.SIZE) * Block.SIZE;
         for (int x = startX; x <= endX; x += Block.SIZE) {
-            if (generatedTreeXs.contains(x)) continue;
-            generatedTreeXs.add(x);
-            Random r = new Random(java.util.Objects.hash(x, seed));
-            if (r.nextFloat() < TREE_APPEARANCE_PROBABILITY) createTree(treeParts, x, r);
+            TreeLayout layout = layoutAt(x);
+            if (layout != null) layouts.add(layout);
+        }
+        return layouts;
+    }
+
+    /**
+     * Creates the game objects of a single tree: trunk blocks, then leaves and fruits.
+     * Must be called from the game thread.
+     *
+     * @param layout the tree's layout, as computed by {@link #layoutsInRange(int, int)}.
+     * @return the tree's objects.
+     */
+    public List<GameObject> createTree(TreeLayout layout) {
+        List<GameObject> treeParts = new ArrayList<>(layout.partCount());
+        for (TreeLayout.Part part : layout.trunk()) {
+            GameObject trunkBlock = new Block(
+                    new Vector2(part.x(), part.y()),
+                    new RectangleRenderable(part.color())
+            );
+            trunkBlock.setTag(TRUNK_TAG);
+            treeParts.add(trunkBlock);
+        }
+
+        for (TreeLayout.Part part : layout.leaves()) {
+            GameObject leaf = new Block(
+                    new Vector2(part.x(), part.y()),
+                    new RectangleRenderable(part.color())
+            );
+
+            leaf.setTag(LEAF_TAG);
+            leaf.physics().setMass(0);
+            leaf.physics().preventIntersectionsFromDirection(null);
+            animateLeaf(leaf, part.delay());
+
+            treeParts.add(leaf);
+        }
+
+        for (TreeLayout.Part part : layout.fruits()) {
+            GameObject fruit = new Fruit(
+                    new Vector2(part.x(), part.y()),
+                    new Vector2(Block.SIZE, Block.SIZE),
+                    FRUIT_RESPAWN_TIME
+            );
+
+            fruit.physics().setMass(0);
+            fruit.physics().preventIntersectionsFromDirection(null);
+
+            treeParts.add(fruit);
         }
         return treeParts;
     }
 
-    private void createTree(List<GameObject> treeParts, int x, Random r) {
+    private TreeLayout layoutAt(int x) {
+        Random r = new Random(java.util.Objects.hash(x, seed));
+        if (r.nextFloat() >= TREE_APPEARANCE_PROBABILITY) return null;
+
+        TreeLayout layout = new TreeLayout();
         float groundHeight = groundHeightFunc.apply((float) x);
         int groundY = (int) (Math.floor(groundHeight / Block.SIZE) * Block.SIZE);
         int treeHeight = r.nextInt(MAX_TREE_HEIGHT - MIN_TREE_HEIGHT) + MIN_TREE_HEIGHT;
@@ -84,12 +133,7 @@ public class Flora {
 
         for (int i = 0; i < treeHeight; i++) {
             int blockY = groundY - (i * Block.SIZE) - Block.SIZE;
-            GameObject trunkBlock = new Block(
-                    new Vector2(x, blockY),
-                    new RectangleRenderable(ColorSupplier.approximateColor(TRUNK_COLOR))
-            );
-            trunkBlock.setTag(TRUNK_TAG);
-            treeParts.add(trunkBlock);
+            layout.addTrunkBlock(x, blockY, ColorSupplier.approximateColor(TRUNK_COLOR, r));
         }
 
         int radius = TREE_RADIUS;
@@ -99,38 +143,19 @@ public class Flora {
                 int leafY = trunkTopY + (j * Block.SIZE);
 
                 if (r.nextFloat() > LEAF_APPEARANCE_PROBABILITY) {
-                    GameObject leaf = new Block(
-                            new Vector2(leafX, leafY),
-                            new RectangleRenderable(ColorSupplier.approximateColor(LEAF_COLOR))
-                    );
-
-                    leaf.setTag(LEAF_TAG);
-                    leaf.physics().setMass(0);
-                    leaf.physics().preventIntersectionsFromDirection(null);
-                    animateLeaf(leaf,r);
-
-                    treeParts.add(leaf);
+                    Color leafColor = ColorSupplier.approximateColor(LEAF_COLOR, r);
+                    layout.addLeaf(leafX, leafY, leafColor, r.nextFloat() * 5);
                 }
 
                 if (r.nextFloat() < FRUIT_APPEARANCE_PROBABILITY) {
-                    GameObject fruit = new Fruit(
-                            new Vector2(leafX, leafY),
-                            new Vector2(Block.SIZE, Block.SIZE),
-                            FRUIT_RESPAWN_TIME
-                    );
-
-                    fruit.physics().setMass(0);
-                    fruit.physics().preventIntersectionsFromDirection(null);
-
-                    treeParts.add(fruit);
+                    layout.addFruit(leafX, leafY);
                 }
             }
         }
+        return layout;
     }
 
-    private void animateLeaf(GameObject leaf,Random r) {
-        float waitTime = r.nextFloat() * 5;
-
+    private void animateLeaf(GameObject leaf, float waitTime) {
         new ScheduledTask(
                 leaf,
                 waitTime,
@@ -143,7 +168,7 @@ public class Flora {
     }
 
     private void createAngleTransition(GameObject leaf) {
-        new Transition<>(
+        Transition.ofFloat(
                 leaf,
                 leaf.renderer()::setRenderableAngle,
                 -MAX_WIND_ANGLE,
@@ -163,9 +188,9 @@ public class Flora {
                 originalDimensions.y()
         );
 
-        new Transition<>(
+        Transition.ofVector(
                 leaf,
-                leaf::setDimensions,
+                leaf.transform()::setDimensions,
                 originalDimensions,
                 targetDimensions,
                 Transition.LINEAR_INTERPOLATOR_VECTOR,
@@ -0,0 +1,89 @@
+package pepse.world.trees;
+
+import java.awt.Color;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The pure data describing a single tree: the positions and colors of its trunk blocks,
+ * leaves and fruits. Creating it involves no game objects, so it can be computed off the
+ * game thread and turned into objects later by {@link Flora#createTree(TreeLayout)}.
+ */
+public final class TreeLayout {
+    /**
+     * A single part of a tree, positioned by its top-left corner.
+     */
+    public static final class Part {
+        private final int x;
+        private final int y;
+        private final Color color;
+        private final float delay;
+
+        private Part(int x, int y, Color color, float delay) {
+            this.x = x;
+            this.y = y;
+            this.color = color;
+            this.delay = delay;
+        }
+
+        /** @return x coordinate of the part's top-left corner. */
+        public int x() {
+            return x;
+        }
+
+        /** @return y coordinate of the part's top-left corner. */
+        public int y() {
+            return y;
+        }
+
+        /** @return the part's color, or null for fruits. */
+        public Color color() {
+            return color;
+        }
+
+        /** @return for leaves, the time before the leaf starts swaying in the wind. */
+        public float delay() {
+            return delay;
+        }
+    }
+
+    private final List<Part> trunk = new ArrayList<>();
+    private final List<Part> leaves = new ArrayList<>();
+    private final List<Part> fruits = new ArrayList<>();
+
+    void addTrunkBlock(int x, int y, Color color) {
+        trunk.add(new Part(x, y, color, 0));
+    }
+
+    void addLeaf(int x, int y, Color color, float delay) {
+        leaves.add(new Part(x, y, color, delay));
+    }
+
+    void addFruit(int x, int y) {
+        fruits.add(new Part(x, y, null, 0));
+    }
+
+    /** @return the trunk blocks, from bottom to top. */
+    public List<Part> trunk() {
+        return trunk;
+    }
+
+    /** @return the leaves of the tree's foliage. */
+    public List<Part> leaves() {
+        return leaves;
+    }
+
+    /** @return the fruits hanging in the tree's foliage. */
+    public List<Part> fruits() {
+        return fruits;
+    }
+
+    /**
+     * Returns the number of game objects the tree is made of.
+     *
+     * @return total number of trunk blocks, leaves and fruits.
+     */
+    public int partCount() {
+        return trunk.size() + leaves.size() + fruits.size();
+    }
+}